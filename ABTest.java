@@ -0,0 +1,277 @@
+package summative;
+
+import becker.robots.City;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares two robots by running battles until a sequential probability ratio test (SPRT) can tell whether the first
+ * one beats the second more often than not.  Both robots play in every battle along with the rest of the field, and a
+ * robot beats the other one in a battle if it stays in play longer.  Battles where both die on the same turn are draws
+ * and are not counted by the test.
+ *
+ * In paired mode the battles come in pairs that use the same seed, so both battles of a pair have the same spawn
+ * locations and dice rolls with A and B swapping seats.  The luck of the spawn and the dice then mostly cancels out
+ * within a pair, and far fewer battles are needed to tell a small difference apart.  The two battles of a pair are
+ * not independent, so the test counts each pair as one game: won by whichever robot won more of its two battles, and a
+ * draw if they won as many.  p0 and p1 are then win rates of pairs rather than of single battles.
+ */
+public class ABTest {
+
+	// The other players in every battle
+	public static final RobotType[] DEFAULT_FIELD = {RobotType.OFFENSIVE, RobotType.DEFENSIVE};
+
+	// Outcome of a single battle
+	private static final int A_WON = 1;
+	private static final int B_WON = -1;
+	private static final int DRAW = 0;
+
+	// Outcome of the whole test
+	public static final int UNDECIDED = 0;
+	public static final int A_IS_BETTER = 1;
+	public static final int A_IS_NOT_BETTER = -1;
+
+	private final RobotType candidateA;
+	private final RobotType candidateB;
+	private final RobotType[] field;
+	private final double p0;           // win rate of A when it is no better than B
+	private final double p1;           // win rate of A when it is better than B
+	private final double lowerBound;   // log likelihood ratio that accepts p0
+	private final double upperBound;   // log likelihood ratio that accepts p1
+	private final boolean paired;      // whether battles are played in pairs with the same seed
+	private final long seed;           // the seed every battle's seed is derived from
+
+	private int wins = 0;
+	private int losses = 0;
+	private int draws = 0;
+	private int pairWins = 0;
+	private int pairLosses = 0;
+	private int pairDraws = 0;
+	private int firstOfPair = DRAW;   // outcome of the first battle of the pair being played
+	private double llr = 0;
+	private int result = UNDECIDED;
+
+	/**
+	 * Main method that compares two robots and prints the result
+	 * @param args  names of robot A and robot B, then optionally the maximum number of battles (default 20000), the number of worker threads,
+	 *              the seed (default random) and whether to play paired battles (default true)
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		RobotType a = RobotType.forName(args[0]);
+		RobotType b = RobotType.forName(args[1]);
+		int maxBattles = 20000;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 2)
+			maxBattles = Integer.parseInt(args[2]);
+		if (args.length > 3)
+			numThreads = Integer.parseInt(args[3]);
+		long seed = new Random().nextLong();
+		if (args.length > 4)
+			seed = Long.parseLong(args[4]);
+		boolean paired = true;
+		if (args.length > 5)
+			paired = Boolean.parseBoolean(args[5]);
+
+		City.showFrame(false);
+
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			ABTest test = new ABTest(a, b, DEFAULT_FIELD, 0.5, 0.55, 0.05, 0.05, paired, seed);
+			test.run(tournament, maxBattles);
+			test.print();
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * @param candidateA    the robot being tested
+	 * @param candidateB    the robot it is compared against
+	 * @param field         the other players in every battle, NUM_PLAYERS - 2 of them
+	 * @param p0            win rate of A when it is no better than B, usually 0.5 (of pairs in paired mode)
+	 * @param p1            win rate of A when it is better than B, must be more than p0 (of pairs in paired mode)
+	 * @param alpha         chance of deciding A is better when it is not
+	 * @param beta          chance of deciding A is not better when it is
+	 * @param paired        whether to play the battles in pairs with the same seed and A and B swapping seats
+	 * @param seed          the seed every battle's seed is derived from, the same seed always gives the same result
+	 */
+	public ABTest(RobotType candidateA, RobotType candidateB, RobotType[] field, double p0, double p1, double alpha, double beta, boolean paired, long seed)
+	{
+		if (field.length != BattleManagerTest11.NUM_PLAYERS - 2)
+			throw new IllegalArgumentException("The field needs " + (BattleManagerTest11.NUM_PLAYERS - 2) + " robots");
+		if (p1 <= p0)
+			throw new IllegalArgumentException("p1 must be more than p0");
+		this.candidateA = candidateA;
+		this.candidateB = candidateB;
+		this.field = field.clone();
+		this.p0 = p0;
+		this.p1 = p1;
+		this.lowerBound = Math.log(beta / (1 - alpha));
+		this.upperBound = Math.log((1 - beta) / alpha);
+		this.paired = paired;
+		this.seed = seed;
+	}
+
+	/**
+	 * Runs batches of battles on the tournament's workers until the test reaches a decision or maxBattles is reached
+	 * @param tournament    the tournament to run the battles on
+	 * @param maxBattles    the most battles to run
+	 * @return              A_IS_BETTER, A_IS_NOT_BETTER or UNDECIDED
+	 */
+	public int run(Tournament tournament, int maxBattles) throws InterruptedException
+	{
+		// enough battles to keep every worker busy between checks (always even, so pairs are never split between batches)
+		int batchSize = tournament.getNumThreads() * 8;
+		while (result == UNDECIDED && getBattlesPlayed() < maxBattles)
+		{
+			final int firstBattle = getBattlesPlayed();
+			int numBattles = Math.min(batchSize, maxBattles - firstBattle);
+			List<Integer> outcomes = tournament.runBatch(numBattles, new BattleTask<Integer>() {
+				public Integer run(int index)
+				{
+					return playBattle(firstBattle + index);
+				}
+			});
+
+			// go through the outcomes in order and stop at the battle that decided the test
+			for (int i = 0; i < outcomes.size() && result == UNDECIDED; i++)
+			{
+				int outcome = outcomes.get(i);
+				countBattle(outcome);
+				if (!paired)
+					addGame(outcome);
+				else if (getBattlesPlayed() % 2 == 1)
+					firstOfPair = outcome;
+				else
+				{
+					// the pair is one game, won by whichever robot won more of its two battles
+					addPair(Integer.signum(firstOfPair + outcome));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Helper method used to play one battle and find which of the two robots stayed in play longer
+	 * @param number    the battle number, A and B swap seats every other battle so neither always moves first
+	 */
+	private int playBattle(int number)
+	{
+		RobotType[] roster = new RobotType[BattleManagerTest11.NUM_PLAYERS];
+		int seatA = number % 2;
+		int seatB = 1 - seatA;
+		roster[seatA] = candidateA;
+		roster[seatB] = candidateB;
+		for (int i = 0; i < field.length; i++)
+			roster[i + 2] = field[i];
+
+		// the seed only depends on the battle number, so the result is the same however the battles are spread over the workers
+		long battleSeed;
+		if (paired)
+			battleSeed = Seeds.derive(seed, number / 2);
+		else
+			battleSeed = Seeds.derive(seed, number);
+
+		BattleManagerTest11 battle = new BattleManagerTest11(roster, battleSeed, false, RobotPool.forCurrentThread());
+		battle.runBattle();
+
+		int survivedA = battle.getTurnsSurvived(seatA);
+		int survivedB = battle.getTurnsSurvived(seatB);
+		if (survivedA > survivedB)
+			return A_WON;
+		else if (survivedB > survivedA)
+			return B_WON;
+		else
+			return DRAW;
+	}
+
+	/**
+	 * Helper method used to count one battle in the totals that are printed
+	 */
+	private void countBattle(int outcome)
+	{
+		if (outcome == A_WON)
+			wins++;
+		else if (outcome == B_WON)
+			losses++;
+		else
+			draws++;
+	}
+
+	/**
+	 * Helper method used to count the outcome of a pair of battles and add it to the test as one game
+	 */
+	private void addPair(int outcome)
+	{
+		if (outcome == A_WON)
+			pairWins++;
+		else if (outcome == B_WON)
+			pairLosses++;
+		else
+			pairDraws++;
+		addGame(outcome);
+	}
+
+	/**
+	 * Helper method used to add one game, a single battle or a pair of them, to the test and check its bounds
+	 */
+	private void addGame(int outcome)
+	{
+		if (outcome == A_WON)
+			llr += Math.log(p1 / p0);
+		else if (outcome == B_WON)
+			llr += Math.log((1 - p1) / (1 - p0));
+		checkBounds();
+	}
+
+	/**
+	 * Helper method used to check whether the test has reached one of its bounds
+	 */
+	private void checkBounds()
+	{
+		if (llr >= upperBound)
+			result = A_IS_BETTER;
+		else if (llr <= lowerBound)
+			result = A_IS_NOT_BETTER;
+	}
+
+	/**
+	 * @return  the number of battles counted so far, including draws
+	 */
+	public int getBattlesPlayed()
+	{
+		return wins + losses + draws;
+	}
+
+	/**
+	 * Prints the decision, the number of battles it took and the win rate of A with its 95% confidence interval.  In
+	 * paired mode the win rate is of pairs, since the battles of a pair are not independent.
+	 */
+	public void print()
+	{
+		int gameWins = paired ? pairWins : wins;
+		int decisive = paired ? pairWins + pairLosses : wins + losses;
+		double winRate = 0;
+		if (decisive > 0)
+			winRate = (double) gameWins / decisive;
+
+		System.out.println(candidateA.getName() + " vs " + candidateB.getName());
+		System.out.println("Battles played: " + getBattlesPlayed() + " (" + wins + " won, " + losses + " lost, " + draws + " drawn)");
+		if (paired)
+			System.out.println("Pairs played: " + (pairWins + pairLosses + pairDraws) + " (" + pairWins + " won, " + pairLosses + " lost, " + pairDraws + " drawn)");
+		System.out.format("Win rate of %s: %.4f [%.4f, %.4f]%n", candidateA.getName(), winRate, WinRate.wilsonLower(gameWins, decisive, WinRate.Z_95), WinRate.wilsonUpper(gameWins, decisive, WinRate.Z_95));
+		System.out.format("Log likelihood ratio: %.3f (bounds %.3f, %.3f)%n", llr, lowerBound, upperBound);
+		if (result == A_IS_BETTER)
+			System.out.println("Result: " + candidateA.getName() + " is better (win rate >= " + p1 + ")");
+		else if (result == A_IS_NOT_BETTER)
+			System.out.println("Result: " + candidateA.getName() + " is not better (win rate <= " + p0 + ")");
+		else
+			System.out.println("Result: undecided after the maximum number of battles");
+	}
+}
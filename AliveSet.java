@@ -0,0 +1,99 @@
+package summative;
+
+/**
+ * Keeps track of which FighterRobots are still in play, in the order they take their turns.  Dead robots are only
+ * marked when they die and are squeezed out of the turn order by compact(), so a round only goes through the robots
+ * that were alive when it started instead of every player in the battle.
+ */
+public class AliveSet {
+
+	private final int[] order;      // IDs in turn order, may still hold robots that died since the last compact()
+	private final boolean[] alive;  // whether each ID (index position refers to the robot ID#) is still in play
+	private int numSlots;           // number of IDs used in order
+	private int size;               // number of robots still in play
+
+	/**
+	 * Creates a set with every player alive, in order of their IDs
+	 * @param numPlayers    the number of players in the battle
+	 */
+	public AliveSet(int numPlayers)
+	{
+		order = new int[numPlayers];
+		alive = new boolean[numPlayers];
+		for (int i = 0; i < numPlayers; i++)
+		{
+			order[i] = i;
+			alive[i] = true;
+		}
+		numSlots = numPlayers;
+		size = numPlayers;
+	}
+
+	/**
+	 * @param id    the ID of a robot
+	 * @return      whether the robot is still in play
+	 */
+	public boolean contains(int id)
+	{
+		return alive[id];
+	}
+
+	/**
+	 * Takes a robot out of play.  Nothing happens if it was already out of play.
+	 * @param id    the ID of the robot
+	 */
+	public void remove(int id)
+	{
+		if (alive[id])
+		{
+			alive[id] = false;
+			size--;
+		}
+	}
+
+	/**
+	 * @return  the number of robots still in play
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return  the number of positions in the turn order, including robots that died since the last compact()
+	 */
+	public int slots()
+	{
+		return numSlots;
+	}
+
+	/**
+	 * @param slot  a position in the turn order, from 0 to slots() - 1
+	 * @return      the ID of the robot in that position (check contains() if it may have died)
+	 */
+	public int get(int slot)
+	{
+		return order[slot];
+	}
+
+	/**
+	 * Removes the dead robots from the turn order while keeping the living ones in the same order
+	 */
+	public void compact()
+	{
+		if (numSlots == size)
+			return;
+
+		int kept = 0;
+		for (int slot = 0; slot < numSlots; slot++)
+		{
+			int id = order[slot];
+			if (alive[id])
+			{
+				order[kept] = id;
+				kept++;
+			}
+		}
+		numSlots = kept;
+	}
+}
@@ -0,0 +1,136 @@
+package summative;
+
+/**
+ * Spatial index of the living FighterRobots in the arena.  Every cell of the arena keeps a small list of the IDs of
+ * the robots standing on it, so the robots within a given distance of a point can be found by only looking at the
+ * cells around that point instead of going through every player.
+ */
+public class ArenaGrid {
+
+	private final int width;
+	private final int height;
+	private final int[][] cellIds;  // IDs of the robots on each cell (index is avenue * height + street)
+	private final int[] cellSize;   // number of IDs used in each cell's list
+
+	/**
+	 * Creates an empty grid for an arena of the given size
+	 * @param width     number of avenues in the arena
+	 * @param height    number of streets in the arena
+	 */
+	public ArenaGrid(int width, int height)
+	{
+		this.width = width;
+		this.height = height;
+		this.cellIds = new int[width * height][];
+		this.cellSize = new int[width * height];
+	}
+
+	/**
+	 * Places a robot on a cell of the grid.  Locations outside of the arena are ignored.
+	 * @param id        the ID of the robot
+	 * @param avenue    the avenue the robot is on
+	 * @param street    the street the robot is on
+	 */
+	public void add(int id, int avenue, int street)
+	{
+		if (!inArena(avenue, street))
+			return;
+
+		int cell = avenue * height + street;
+		int[] ids = cellIds[cell];
+		if (ids == null)
+		{
+			ids = new int[2];
+			cellIds[cell] = ids;
+		}
+		else if (cellSize[cell] == ids.length)
+		{
+			int[] bigger = new int[ids.length * 2];
+			System.arraycopy(ids, 0, bigger, 0, ids.length);
+			ids = bigger;
+			cellIds[cell] = ids;
+		}
+		ids[cellSize[cell]] = id;
+		cellSize[cell]++;
+	}
+
+	/**
+	 * Takes a robot off a cell of the grid.  Nothing happens if the robot is not on that cell.
+	 * @param id        the ID of the robot
+	 * @param avenue    the avenue the robot was on
+	 * @param street    the street the robot was on
+	 */
+	public void remove(int id, int avenue, int street)
+	{
+		if (!inArena(avenue, street))
+			return;
+
+		int cell = avenue * height + street;
+		int[] ids = cellIds[cell];
+		for (int i = 0; i < cellSize[cell]; i++)
+		{
+			if (ids[i] == id)
+			{
+				// order inside of a cell does not matter, so fill the gap with the last ID
+				cellSize[cell]--;
+				ids[i] = ids[cellSize[cell]];
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Moves a robot from one cell of the grid to another
+	 * @param id            the ID of the robot
+	 * @param fromAvenue    the avenue the robot was on
+	 * @param fromStreet    the street the robot was on
+	 * @param toAvenue      the avenue the robot is now on
+	 * @param toStreet      the street the robot is now on
+	 */
+	public void move(int id, int fromAvenue, int fromStreet, int toAvenue, int toStreet)
+	{
+		if (fromAvenue == toAvenue && fromStreet == toStreet)
+			return;
+
+		remove(id, fromAvenue, fromStreet);
+		add(id, toAvenue, toStreet);
+	}
+
+	/**
+	 * Finds every robot within a number of moves of a location
+	 * @param avenue    the avenue to search around
+	 * @param street    the street to search around
+	 * @param radius    the maximum number of moves (avenues plus streets) away from the location
+	 * @param out       array the IDs that are found are written to, must be big enough to hold every player
+	 * @return          the number of IDs written to out
+	 */
+	public int collect(int avenue, int street, int radius, int[] out)
+	{
+		int found = 0;
+		int minAvenue = Math.max(0, avenue - radius);
+		int maxAvenue = Math.min(width - 1, avenue + radius);
+		for (int a = minAvenue; a <= maxAvenue; a++)
+		{
+			// only the streets that are still within the radius after travelling to this avenue
+			int streetRange = radius - Math.abs(a - avenue);
+			int minStreet = Math.max(0, street - streetRange);
+			int maxStreet = Math.min(height - 1, street + streetRange);
+			for (int s = minStreet; s <= maxStreet; s++)
+			{
+				int cell = a * height + s;
+				int[] ids = cellIds[cell];
+				for (int i = 0; i < cellSize[cell]; i++)
+				{
+					out[found] = ids[i];
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+
+	private boolean inArena(int avenue, int street)
+	{
+		return avenue >= 0 && avenue < width && street >= 0 && street < height;
+	}
+}
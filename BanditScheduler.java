@@ -0,0 +1,249 @@
+package summative;
+
+import becker.robots.City;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds which of several robots wins most often against a field of opponents while playing as few battles as
+ * possible.  Instead of giving every robot the same number of battles, it uses the LUCB best-arm identification rule:
+ * it keeps playing the robot that looks best and the other robot most likely to beat it, and stops once the best one
+ * is ahead of every other robot by more than their confidence bounds.
+ *
+ * Each worker thread asks the scheduler which robot to play next, plays the battle, and adds the result to a lock-free
+ * queue.  The scheduler only reads the queue when the next robot is chosen, so finished battles never wait on it.
+ */
+public class BanditScheduler {
+
+	// The opponents of every battle
+	public static final RobotType[] DEFAULT_FIELD = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED};
+
+	private final RobotType[] arms;
+	private final RobotType[] field;
+	private final double delta;      // chance of picking the wrong robot
+	private final long seed;
+
+	private final long[] scheduled;  // battles handed out to the workers for each robot, finished or not
+	private final long[] pulls;      // battles finished for each robot
+	private final long[] wins;       // battles won by each robot
+	private long totalPulls = 0;
+	private boolean pickLeader = true;         // the leader and challenger take turns being played
+	private volatile int best = -1;            // set once the scheduler has decided
+	private final ConcurrentLinkedQueue<long[]> finished = new ConcurrentLinkedQueue<long[]>();   // {robot, won} of each finished battle
+	private final AtomicLong battlesStarted = new AtomicLong();
+
+	/**
+	 * Main method that finds the best of the built in robots against the default field
+	 * @param args  optionally the most battles to play (default 100000), the number of worker threads and the seed (default random)
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		long maxBattles = 100000;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		long seed = new Random().nextLong();
+		if (args.length > 0)
+			maxBattles = Long.parseLong(args[0]);
+		if (args.length > 1)
+			numThreads = Integer.parseInt(args[1]);
+		if (args.length > 2)
+			seed = Long.parseLong(args[2]);
+
+		City.showFrame(false);
+
+		RobotType[] arms = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED, RobotType.RAHMAN_V4};
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			BanditScheduler scheduler = new BanditScheduler(arms, DEFAULT_FIELD, 0.05, seed);
+			scheduler.run(tournament, maxBattles);
+			scheduler.print();
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * @param arms      the robots to choose between
+	 * @param field     the opponents of every battle, NUM_PLAYERS - 1 of them
+	 * @param delta     the chance of picking the wrong robot that is allowed, for example 0.05
+	 * @param seed      the seed every battle's seed is derived from
+	 */
+	public BanditScheduler(RobotType[] arms, RobotType[] field, double delta, long seed)
+	{
+		if (field.length != BattleManagerTest11.NUM_PLAYERS - 1)
+			throw new IllegalArgumentException("The field needs " + (BattleManagerTest11.NUM_PLAYERS - 1) + " robots");
+		this.arms = arms.clone();
+		this.field = field.clone();
+		this.delta = delta;
+		this.seed = seed;
+		scheduled = new long[arms.length];
+		pulls = new long[arms.length];
+		wins = new long[arms.length];
+	}
+
+	/**
+	 * Plays battles on every worker of the tournament until the best robot is found or maxBattles have been started
+	 * @param tournament    the tournament whose workers play the battles
+	 * @param maxBattles    the most battles to play
+	 * @return              the index of the best robot in arms (the one leading so far if maxBattles ran out first)
+	 */
+	public int run(Tournament tournament, final long maxBattles) throws InterruptedException
+	{
+		// one long running task per worker, each one playing battles until the scheduler decides
+		tournament.runBatch(tournament.getNumThreads(), new BattleTask<Object>() {
+			public Object run(int worker)
+			{
+				int arm = nextArm();
+				while (arm >= 0)
+				{
+					long number = battlesStarted.getAndIncrement();
+					if (number >= maxBattles)
+						break;
+					finished.add(new long[] {arm, playBattle(arm, number) ? 1 : 0});
+					arm = nextArm();
+				}
+				return null;
+			}
+		});
+
+		synchronized (this)
+		{
+			drainFinished();
+			if (best < 0)
+				return findLeader();
+			return best;
+		}
+	}
+
+	/**
+	 * Helper method used to choose the robot the next battle is for
+	 * @return  index of the robot, or -1 once the best robot has been found
+	 */
+	private synchronized int nextArm()
+	{
+		drainFinished();
+		if (best >= 0)
+			return -1;
+
+		// every robot needs a battle before the bounds mean anything, counting the ones still being played so the
+		// workers do not all start on the same robot while waiting for the first results
+		for (int arm = 0; arm < arms.length; arm++)
+		{
+			if (scheduled[arm] == 0)
+			{
+				scheduled[arm]++;
+				return arm;
+			}
+		}
+
+		int leader = findLeader();
+		int challenger = -1;
+		for (int arm = 0; arm < arms.length; arm++)
+		{
+			if (arm != leader && (challenger < 0 || upper(arm) > upper(challenger)))
+				challenger = arm;
+		}
+
+		if (challenger < 0 || lower(leader) > upper(challenger))
+		{
+			best = leader;
+			return -1;
+		}
+
+		pickLeader = !pickLeader;
+		int arm = pickLeader ? leader : challenger;
+		scheduled[arm]++;
+		return arm;
+	}
+
+	/**
+	 * Helper method used to add the battles the workers have finished since the last call
+	 */
+	private void drainFinished()
+	{
+		long[] result = finished.poll();
+		while (result != null)
+		{
+			pulls[(int) result[0]]++;
+			wins[(int) result[0]] += result[1];
+			totalPulls++;
+			result = finished.poll();
+		}
+	}
+
+	/**
+	 * Helper method used to find the robot with the best win rate so far
+	 */
+	private int findLeader()
+	{
+		int leader = 0;
+		for (int arm = 1; arm < arms.length; arm++)
+		{
+			if (mean(arm) > mean(leader))
+				leader = arm;
+		}
+		return leader;
+	}
+
+	private double mean(int arm)
+	{
+		if (pulls[arm] == 0)
+			return 0;
+		return (double) wins[arm] / pulls[arm];
+	}
+
+	/**
+	 * Helper method used to find the width of a robot's confidence bound, from the LUCB1 exploration rate
+	 */
+	private double bonus(int arm)
+	{
+		double t = Math.max(1, totalPulls);
+		return Math.sqrt(Math.log(1.25 * arms.length * Math.pow(t, 4) / delta) / (2 * pulls[arm]));
+	}
+
+	private double upper(int arm)
+	{
+		return mean(arm) + bonus(arm);
+	}
+
+	private double lower(int arm)
+	{
+		return mean(arm) - bonus(arm);
+	}
+
+	/**
+	 * Helper method used to play one battle of a robot against the field
+	 * @return  whether the robot won
+	 */
+	private boolean playBattle(int arm, long number)
+	{
+		// the robot moves through every seat, so it does not always get the first turn
+		int seat = (int) (number % BattleManagerTest11.NUM_PLAYERS);
+		RobotType[] roster = ParameterSearch.seatRoster(arms[arm], field, seat);
+
+		BattleManagerTest11 battle = new BattleManagerTest11(roster, Seeds.derive(seed, number), false, RobotPool.forCurrentThread());
+		battle.runBattle();
+		return battle.getWinnerID() == seat;
+	}
+
+	/**
+	 * Prints the robot that was found to be best and the win rate of every robot
+	 */
+	public synchronized void print()
+	{
+		for (int arm = 0; arm < arms.length; arm++)
+		{
+			System.out.format("%-25s%10d battles  win rate %.4f [%.4f, %.4f]%n", arms[arm].getName(), pulls[arm], mean(arm),
+					WinRate.wilsonLower(wins[arm], pulls[arm], WinRate.Z_95), WinRate.wilsonUpper(wins[arm], pulls[arm], WinRate.Z_95));
+		}
+		System.out.println("Battles played: " + totalPulls);
+		if (best >= 0)
+			System.out.println("Best robot: " + arms[best].getName());
+		else
+			System.out.println("Undecided after the maximum number of battles, leading robot: " + arms[findLeader()].getName());
+	}
+}
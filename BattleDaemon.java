@@ -0,0 +1,272 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+
+/**
+ * A long running process that keeps the engine, the robots and the worker threads loaded and warmed up, and runs
+ * batches of battles sent to it over a socket on this computer, so an experiment does not pay for starting a JVM.
+ *
+ * The protocol is one command per line, and every reply line starts with a word saying what it is:
+ * <pre>
+ *   PING                                           -&gt; PONG
+ *   RUN count seed type,type,type,type [file]      -&gt; RESULT index seed winnerID numTurns  (one per battle, in order)
+ *                                                     DONE count millis
+ *   QUIT                                           -&gt; closes the connection
+ *   SHUTDOWN                                       -&gt; stops the daemon
+ * </pre>
+ * Battle i of a RUN is played with the seed Seeds.derive(seed, i).  When a file is given the RESULT lines are written to
+ * the file instead of the connection.  Anyone on this computer can connect, so files can only be written inside the
+ * output directory the daemon was started with, and not at all if it was started without one.  Anything that goes
+ * wrong with a command is answered with ERROR and a message.
+ */
+public class BattleDaemon {
+
+	public static final int DEFAULT_PORT = 7311;
+
+	private static final int WARM_UP_BATTLES = 2000;
+	private static final int CHUNK_SIZE = 256;   // battles run before their results are sent, so results stream back during a big job
+
+	private final Tournament tournament;
+	private final ServerSocket server;
+	private final File outputDir;   // the only place RUN may write files, null to not write files at all
+
+	/**
+	 * Main method that starts the daemon
+	 * @param args  optionally the port (default 7311), the number of worker threads (default one per processor) and the
+	 *              directory RUN may write files to (default none)
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int port = DEFAULT_PORT;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 0)
+			port = Integer.parseInt(args[0]);
+		if (args.length > 1)
+			numThreads = Integer.parseInt(args[1]);
+		File outputDir = null;
+		if (args.length > 2)
+			outputDir = new File(args[2]);
+
+		City.showFrame(false);
+
+		BattleDaemon daemon = new BattleDaemon(port, numThreads, outputDir);
+		daemon.warmUp();
+		System.out.println("Listening on localhost:" + port);
+		daemon.serve();
+	}
+
+	/**
+	 * Starts listening, only to connections from this computer, without letting RUN write files
+	 * @param port          the port to listen on
+	 * @param numThreads    the number of battles to run at the same time
+	 */
+	public BattleDaemon(int port, int numThreads) throws IOException
+	{
+		this(port, numThreads, null);
+	}
+
+	/**
+	 * Starts listening, only to connections from this computer
+	 * @param port          the port to listen on
+	 * @param numThreads    the number of battles to run at the same time
+	 * @param outputDir     the directory the files named in RUN commands are written to, or null to not write files
+	 */
+	public BattleDaemon(int port, int numThreads, File outputDir) throws IOException
+	{
+		if (outputDir != null && !outputDir.isDirectory())
+			throw new IllegalArgumentException(outputDir + " is not a directory");
+		this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.tournament = new Tournament(numThreads);
+		this.outputDir = outputDir == null ? null : outputDir.getCanonicalFile();
+	}
+
+	/**
+	 * Plays battles of every built in robot until the code the battles use is compiled, so the first job is fast too
+	 */
+	public void warmUp() throws InterruptedException
+	{
+		long start = System.currentTimeMillis();
+		tournament.run(BattleManagerTest11.DEFAULT_ROSTER, WARM_UP_BATTLES);
+		System.out.println("Warmed up with " + WARM_UP_BATTLES + " battles in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/**
+	 * Accepts connections until a SHUTDOWN command.  Each connection is served on its own thread, and the battles of
+	 * every connection share the same worker threads.
+	 */
+	public void serve() throws IOException
+	{
+		try
+		{
+			while (true)
+			{
+				final Socket client = server.accept();
+				Thread handler = new Thread(new Runnable() {
+					public void run()
+					{
+						handle(client);
+					}
+				}, "BattleDaemon client " + client.getPort());
+				handler.setDaemon(true);
+				handler.start();
+			}
+		}
+		catch (SocketException e)
+		{
+			// the server socket was closed by SHUTDOWN
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * Stops accepting connections, so serve() returns
+	 */
+	public void shutdown() throws IOException
+	{
+		server.close();
+	}
+
+	/**
+	 * Helper method used to answer the commands of one connection until it closes or sends QUIT
+	 */
+	private void handle(Socket client)
+	{
+		try
+		{
+			BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), "UTF-8"));
+			PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), "UTF-8")));
+			try
+			{
+				String line = in.readLine();
+				while (line != null)
+				{
+					String[] words = line.trim().split("\\s+");
+					if (words[0].equals("QUIT"))
+						break;
+					else if (words[0].equals("SHUTDOWN"))
+					{
+						out.println("BYE");
+						out.flush();
+						shutdown();
+						break;
+					}
+					else if (words[0].equals("PING"))
+						out.println("PONG");
+					else if (words[0].equals("RUN"))
+					{
+						try
+						{
+							runJob(words, out);
+						}
+						catch (RuntimeException | IOException e)
+						{
+							out.println("ERROR " + e.getMessage());
+						}
+					}
+					else
+						out.println("ERROR Unknown command: " + words[0]);
+					out.flush();
+					line = in.readLine();
+				}
+			}
+			finally
+			{
+				client.close();
+			}
+		}
+		catch (IOException e)
+		{
+			// the client went away, nothing to answer
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Helper method used to run the battles of a RUN command, sending the results a chunk at a time
+	 */
+	private void runJob(String[] words, PrintWriter reply) throws IOException, InterruptedException
+	{
+		if (words.length < 4 || words.length > 5)
+			throw new IllegalArgumentException("Usage: RUN count seed type,type,type,type [file]");
+		final int count = Integer.parseInt(words[1]);
+		final long seed = Long.parseLong(words[2]);
+		String[] names = words[3].split(",");
+		final RobotType[] roster = new RobotType[names.length];
+		for (int i = 0; i < names.length; i++)
+			roster[i] = RobotType.forName(names[i]);
+		if (roster.length != BattleManagerTest11.NUM_PLAYERS)
+			throw new IllegalArgumentException("The roster needs " + BattleManagerTest11.NUM_PLAYERS + " robots");
+
+		PrintWriter out = reply;
+		if (words.length == 5)
+			out = new PrintWriter(new BufferedWriter(new FileWriter(outputFile(words[4]))));
+
+		long start = System.currentTimeMillis();
+		try
+		{
+			for (int first = 0; first < count; first += CHUNK_SIZE)
+			{
+				final int chunkStart = first;
+				int chunkSize = Math.min(CHUNK_SIZE, count - first);
+				List<BattleOutcome> outcomes = tournament.runBatch(chunkSize, new BattleTask<BattleOutcome>() {
+					public BattleOutcome run(int index)
+					{
+						BattleManagerTest11 battle = new BattleManagerTest11(roster, Seeds.derive(seed, chunkStart + index), false, RobotPool.forCurrentThread());
+						battle.runBattle();
+						return new BattleOutcome(battle);
+					}
+				});
+				for (int i = 0; i < outcomes.size(); i++)
+				{
+					BattleOutcome outcome = outcomes.get(i);
+					out.println("RESULT " + (chunkStart + i) + " " + outcome.getSeed() + " " + outcome.getWinnerID() + " " + outcome.getNumTurns());
+				}
+				out.flush();
+			}
+		}
+		finally
+		{
+			if (out != reply)
+				out.close();
+		}
+		reply.println("DONE " + count + " " + (System.currentTimeMillis() - start));
+	}
+
+	/**
+	 * Helper method used to find where a RUN command may write its results, refusing any name that is not a file
+	 * inside the output directory
+	 */
+	private File outputFile(String name) throws IOException
+	{
+		if (outputDir == null)
+			throw new IllegalArgumentException("This daemon was started without an output directory, so it can not write files");
+		if (new File(name).isAbsolute())
+			throw new IllegalArgumentException("The file must be a name inside the output directory: " + name);
+
+		// the canonical path has every ".." and link resolved, so it shows where the file would really be written
+		File file = new File(outputDir, name).getCanonicalFile();
+		if (!file.getPath().startsWith(outputDir.getPath() + File.separator))
+			throw new IllegalArgumentException("The file must be a name inside the output directory: " + name);
+		return file;
+	}
+}
@@ -0,0 +1,71 @@
+package summative;
+
+/**
+ * Receives the events of a battle as they happen.  Every method only takes primitives (and penalty reason constants),
+ * so no objects are made to report an event, and each one does nothing by default so a listener only needs to
+ * override the events it cares about.  Add a listener with BattleManagerTest11.addListener().
+ */
+public interface BattleListener {
+
+	/**
+	 * Called before a FighterRobot is asked for its TurnRequest
+	 * @param turn      the number of turns taken before this one
+	 * @param id        the FighterRobot ID taking the turn
+	 * @param energy    the FighterRobot's energy at the start of the turn
+	 * @param health    the FighterRobot's health at the start of the turn
+	 */
+	default void turnStarted(int turn, int id, int energy, int health) {}
+
+	/**
+	 * Called after a FighterRobot has moved to the location it requested
+	 * @param id            the FighterRobot ID
+	 * @param fromAvenue    the avenue it started on
+	 * @param fromStreet    the street it started on
+	 * @param toAvenue      the avenue it ended on
+	 * @param toStreet      the street it ended on
+	 */
+	default void moved(int id, int fromAvenue, int fromStreet, int toAvenue, int toStreet) {}
+
+	/**
+	 * Called after each round of a fight
+	 * @param attackerID        the FighterRobot ID that started the fight
+	 * @param defenderID        the FighterRobot ID that was attacked
+	 * @param attackerRoll      the attacker's highest dice roll, 0 if no dice were rolled because the defender had no energy
+	 * @param defenderRoll      the defender's highest dice roll, 0 if no dice were rolled
+	 * @param attackerHealthLost    health the attacker lost in the round
+	 * @param defenderHealthLost    health the defender lost in the round
+	 */
+	default void roundFought(int attackerID, int defenderID, int attackerRoll, int defenderRoll, int attackerHealthLost, int defenderHealthLost) {}
+
+	/**
+	 * Called after all the rounds of a fight, before the winner gets its health back
+	 * @param attackerID            the FighterRobot ID that started the fight
+	 * @param defenderID            the FighterRobot ID that was attacked
+	 * @param numRounds             the number of rounds fought
+	 * @param attackerHealthLost    health the attacker lost in the fight
+	 * @param defenderHealthLost    health the defender lost in the fight
+	 */
+	default void fightFinished(int attackerID, int defenderID, int numRounds, int attackerHealthLost, int defenderHealthLost) {}
+
+	/**
+	 * Called when a FighterRobot is given a penalty
+	 * @param id            the FighterRobot ID
+	 * @param numPenalty    the amount of health taken away
+	 * @param reason        why the penalty was given
+	 */
+	default void penaltyGiven(int id, int numPenalty, PenaltyReason reason) {}
+
+	/**
+	 * Called when a FighterRobot loses all of its health
+	 * @param id    the FighterRobot ID
+	 * @param turn  the number of turns taken before the one it died on
+	 */
+	default void died(int id, int turn) {}
+
+	/**
+	 * Called once when only one FighterRobot (or none) is left, or the battle reached BattleManagerTest11.MAX_TURNS
+	 * @param winnerID  the FighterRobot ID left in play, or -1 if the last players died together or the battle was stopped at MAX_TURNS
+	 * @param numTurns  the number of turns taken in the battle
+	 */
+	default void battleEnded(int winnerID, int numTurns) {}
+}
@@ -0,0 +1,59 @@
+package summative;
+
+/**
+ * Passes every battle event on to two listeners, so any number of listeners can be chained together while the battle
+ * manager only ever holds one.
+ */
+class BattleListenerPair implements BattleListener {
+
+	private final BattleListener first;
+	private final BattleListener second;
+
+	BattleListenerPair(BattleListener first, BattleListener second)
+	{
+		this.first = first;
+		this.second = second;
+	}
+
+	public void turnStarted(int turn, int id, int energy, int health)
+	{
+		first.turnStarted(turn, id, energy, health);
+		second.turnStarted(turn, id, energy, health);
+	}
+
+	public void moved(int id, int fromAvenue, int fromStreet, int toAvenue, int toStreet)
+	{
+		first.moved(id, fromAvenue, fromStreet, toAvenue, toStreet);
+		second.moved(id, fromAvenue, fromStreet, toAvenue, toStreet);
+	}
+
+	public void roundFought(int attackerID, int defenderID, int attackerRoll, int defenderRoll, int attackerHealthLost, int defenderHealthLost)
+	{
+		first.roundFought(attackerID, defenderID, attackerRoll, defenderRoll, attackerHealthLost, defenderHealthLost);
+		second.roundFought(attackerID, defenderID, attackerRoll, defenderRoll, attackerHealthLost, defenderHealthLost);
+	}
+
+	public void fightFinished(int attackerID, int defenderID, int numRounds, int attackerHealthLost, int defenderHealthLost)
+	{
+		first.fightFinished(attackerID, defenderID, numRounds, attackerHealthLost, defenderHealthLost);
+		second.fightFinished(attackerID, defenderID, numRounds, attackerHealthLost, defenderHealthLost);
+	}
+
+	public void penaltyGiven(int id, int numPenalty, PenaltyReason reason)
+	{
+		first.penaltyGiven(id, numPenalty, reason);
+		second.penaltyGiven(id, numPenalty, reason);
+	}
+
+	public void died(int id, int turn)
+	{
+		first.died(id, turn);
+		second.died(id, turn);
+	}
+
+	public void battleEnded(int winnerID, int numTurns)
+	{
+		first.battleEnded(winnerID, numTurns);
+		second.battleEnded(winnerID, numTurns);
+	}
+}
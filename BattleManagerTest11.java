@@ -4,7 +4,6 @@ import becker.robots.City;
 import becker.robots.Direction;
 import becker.robots.Wall;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -15,11 +14,13 @@ public class BattleManagerTest11 {
 	public static final int HEIGHT = 12;
 	public static final int NUM_PLAYERS =4;
 	public static final int MOVES_ENERGY_COST = 5;
+	public static final int FULL_VISIBILITY = -1;     // visibility radius that lets every player see the whole arena, see setVisibilityRadius()
+	public static final int MAX_TURNS = 10000;        // a battle still going after this many turns ends as a draw, some robots can keep winning back their health forever
 
 	// Constants used in the game to govern the max amount of health, energy, etc. 
 	private static final int NUM_SIDES_ON_DICE = 10;
-	private static final int MAX_HEALTH = 100;
-	private static final int MAX_ENERGY = 100;
+	public static final int MAX_HEALTH = 100;
+	public static final int MAX_ENERGY = 100;
 	private static final int ATTACKER_ENERGY_CHANGE = 20;
 	private static final int DEFENDER_ENERGY_CHANGE = 10;
 	private static final int TIE_ENERGY_CHANGE = 5;
@@ -31,62 +32,247 @@ public class BattleManagerTest11 {
 	private static final int WIN_DEFEND_FIGHT_HEALTH_GAINS = 1;
 	private static final int KILLED_ROBOT_HEALTH_GAINS = 10;
 	private static final int NUM_ROUNDS_OF_NO_FIGHTS = 5;
+	private static final int PENALTY_SAMPLE_SIZE = 5;     // how many of each player's first penalties are kept to be printed, the rest are only counted
 
-	private static City arena = new City(HEIGHT,WIDTH);
+	// Health sent for opponents that are out of sight (their location is sent as -1, -1), below 0 so robots can tell them apart from dead players (0) and players in sight
+	public static final int UNKNOWN_HEALTH = -1;
+
+	// The robots spawned by main(), one for each player ID
+	public static final RobotType[] DEFAULT_ROSTER = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED, RobotType.RAHMAN_V4};
+
+	// Takes the place of a robot that could not be created, so the battle can go on without it
+	private static final RobotType STAND_IN = new RobotType("StandIn", StandInRobot::new);
+
+	// Everything below belongs to one battle, so several battles can run at the same time on different threads
+	private final RobotType[] roster;
+	private final boolean verbose;    // whether the turn by turn results are printed
+	private final long seed;          // decides where the players spawn and every dice roll, see Seeds
+	private final Random dice = new Random();   // re-seeded for every round of a fight
+	private final RobotPool robotPool;   // where the arena and robots come from, null to build new ones for this battle
+	private final Scenario scenario;     // where the players start, null to spawn them at random
+	private boolean isSetUp = false;
+	private final City arena;
 
 	//MR - should be called "players" : an array of the robots, one for each player
-	private static FighterRobot [] player = new FighterRobot[NUM_PLAYERS];
-	private static int[] health = new int[NUM_PLAYERS];             // an array to keep track of the FighterRobots' health (index position refers to the robot ID#)
-	private static int[] energy = new int[NUM_PLAYERS];             // an array to keep track of the FighterRobots' energy (index position refers to the robot ID#)
-	private static int[] numFights = new int[NUM_PLAYERS];  // an array to keep track of the number of fights, a penalty will apply if robot does not initiate a fight in 5 rounds.
-	private static PlayerStats[] stats = new PlayerStats[NUM_PLAYERS];
-	private static int num_lost = 0;
+	private FighterRobot [] player = new FighterRobot[NUM_PLAYERS];
+	private int[] health = new int[NUM_PLAYERS];             // an array to keep track of the FighterRobots' health (index position refers to the robot ID#)
+	private int[] energy = new int[NUM_PLAYERS];             // an array to keep track of the FighterRobots' energy (index position refers to the robot ID#), as of the turn in energyTurn
+	private int[] energyTurn = new int[NUM_PLAYERS];         // the turn each energy value was last brought up to date, use getEnergy() to read the current energy
+	private int turnCount = 0;                               // the number of turns taken so far
+	private int[] numFights = new int[NUM_PLAYERS];  // an array to keep track of the number of fights, a penalty will apply if robot does not initiate a fight in 5 rounds.
+	private PlayerStats[] stats = new PlayerStats[NUM_PLAYERS];
+	private PenaltyLog penalties = new PenaltyLog(NUM_PLAYERS, PENALTY_SAMPLE_SIZE);
+	private AliveSet alive = new AliveSet(NUM_PLAYERS);    // the players still in play, in the order they take their turns
+	private int[] deathTurn = new int[NUM_PLAYERS];       // the turn each player died on, -1 while it is still in play
+
+	//MR - one object of OppData per player; contains information for each player
+	//MR - in OppData is where you should count how many fights you won per robot
+	private OppData[] playerData = new OppData[NUM_PLAYERS];
+	private OppData[] unknownData = new OppData[NUM_PLAYERS];  // what is sent for each player when it is out of sight
+	private int visibilityRadius = FULL_VISIBILITY;   // how many moves away a player can see its opponents
+	private ArenaGrid grid = null;                    // the players on each cell, only built when a visibility radius is set
+	private int[] visibleIDs = new int[NUM_PLAYERS];
+
+	private BattleListener listener = null;   // null when nothing is listening, so the battle does not pay for events nobody uses
+
+	private ResourceBudget budget = null;     // null when the cost of decisions is not measured
+	private long[] cpuNanos = new long[NUM_PLAYERS];         // CPU time used by each player's takeTurn() calls
+	private long[] allocatedBytes = new long[NUM_PLAYERS];   // bytes allocated by each player's takeTurn() calls
+	private int[] numDecisions = new int[NUM_PLAYERS];       // number of takeTurn() calls measured for each player
 
 	/**
 	 * Main method that sets up the arena and controls the fighting process between the FightingRobots
 	 * @param args
 	 */
 	public static void main(String[] args) {
-		createCity();
-		createPlayers();
+		BattleManagerTest11 battle = new BattleManagerTest11(DEFAULT_ROSTER, true);
+		battle.runBattle();
+		battle.printStats();
+	}
+
+	/**
+	 * Sets up a battle between the given robots with a random seed.  The battle starts when runBattle() is called.
+	 * @param roster    The type of robot for each player ID, must have NUM_PLAYERS entries.
+	 * @param verbose   Whether the results of every turn are printed.
+	 */
+	public BattleManagerTest11(RobotType[] roster, boolean verbose)
+	{
+		this(roster, new Random().nextLong(), verbose);
+	}
+
+	/**
+	 * Sets up a battle between the given robots.  The battle starts when runBattle() is called.  Two battles with the
+	 * same seed spawn their players in the same places and roll the same dice on the same turn and round of a fight,
+	 * whichever robots are playing.
+	 * @param roster    The type of robot for each player ID, must have NUM_PLAYERS entries.
+	 * @param seed      The seed the spawn locations and dice rolls are taken from.
+	 * @param verbose   Whether the results of every turn are printed.
+	 */
+	public BattleManagerTest11(RobotType[] roster, long seed, boolean verbose)
+	{
+		this(roster, seed, verbose, null);
+	}
+
+	/**
+	 * Sets up a battle between the given robots that uses the arena and robots of a pool instead of building new ones.
+	 * The battle plays out the same as one without a pool.
+	 * @param roster    The type of robot for each player ID, must have NUM_PLAYERS entries.
+	 * @param seed      The seed the spawn locations and dice rolls are taken from.
+	 * @param verbose   Whether the results of every turn are printed.
+	 * @param robotPool The pool to take the arena and robots from, or null to build new ones.  Must not be used by
+	 *                  another battle until this one is over.
+	 */
+	public BattleManagerTest11(RobotType[] roster, long seed, boolean verbose, RobotPool robotPool)
+	{
+		this(roster, null, seed, verbose, robotPool);
+	}
+
+	/**
+	 * Sets up a battle that starts from a hand written position instead of random spawn locations.  The seed only
+	 * decides the dice rolls.
+	 * @param scenario  The robots, where they start, their health, energy and fight history.
+	 * @param seed      The seed the dice rolls are taken from.
+	 * @param verbose   Whether the results of every turn are printed.
+	 * @param robotPool The pool to take the arena and robots from, or null to build new ones.
+	 */
+	public BattleManagerTest11(Scenario scenario, long seed, boolean verbose, RobotPool robotPool)
+	{
+		this(scenario.getRoster(), scenario, seed, verbose, robotPool);
+	}
+
+	private BattleManagerTest11(RobotType[] roster, Scenario scenario, long seed, boolean verbose, RobotPool robotPool)
+	{
+		if (roster.length != NUM_PLAYERS)
+			throw new IllegalArgumentException("Roster has " + roster.length + " robots but NUM_PLAYERS is " + NUM_PLAYERS);
+		this.roster = roster.clone();
+		this.scenario = scenario;
+		this.seed = seed;
+		this.verbose = verbose;
+		this.robotPool = robotPool;
+		this.arena = robotPool == null ? new City(HEIGHT,WIDTH) : robotPool.getArena();
+	}
+
+	/**
+	 * Sets up the arena and controls the fighting process between the FightingRobots until only one is left, or until
+	 * the round that reaches MAX_TURNS is over.  The robots run with RobotLoader.SHARED_LOADER as the thread's context
+	 * class loader, so a loaded robot can not find the engine's classes through it either.  A robot that can not be
+	 * created, throws from takeTurn() or returns no TurnRequest forfeits the battle instead of ending it.
+	 */
+	public void runBattle()
+	{
+		Thread thread = Thread.currentThread();
+		ClassLoader engineLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(RobotLoader.SHARED_LOADER);
+		try
+		{
+			playBattle();
+		}
+		finally
+		{
+			thread.setContextClassLoader(engineLoader);
+		}
+	}
 
-		//MR - one object of OppData per player; contains information for each player
-		//MR - in OppData is where you should count how many fights you won per robot
-		OppData[] playerData = new OppData[NUM_PLAYERS];
+	/**
+	 * Helper method used to play the battle for runBattle()
+	 */
+	private void playBattle()
+	{
+		setUp();
 
-		//continues to take turn until one player wins
-		while (num_lost < NUM_PLAYERS - 1)
+		//continues to take turn until one player wins or the battle is a draw
+		while (alive.size() > 1 && turnCount < MAX_TURNS)
 		{
-			//each player will take turn
-			for (int i = 0; i < NUM_PLAYERS; i++)
+			//each player still in play will take turn, in order of their IDs
+			alive.compact();
+			int numTurns = alive.slots();
+			for (int t = 0; t < numTurns; t++)
 			{
-				if (num_lost < NUM_PLAYERS - 1)
+				int i = alive.get(t);
+				//the current player takes its turn if it did not die earlier in this round
+				if (alive.size() > 1 && alive.contains(i))
 				{
-					//create updated Opponent data of each player and sends as a parameter to the current player
-					for (int j = 0; j < NUM_PLAYERS; j++)
+					TurnEvent turnEvent = new TurnEvent();
+					turnEvent.begin();
+
+					//create updated Opponent data of each living player (or only the ones in sight) and sends as a parameter to the current player
+					int numVisible = showPlayers(i);
+
+					if (verbose)
+						System.out.println("Player id " + i + " initial energy level " + getEnergy(i));
+					if (listener != null)
+						listener.turnStarted(turnCount, i, getEnergy(i), health[i]);
+					DecisionEvent decisionEvent = new DecisionEvent();
+					decisionEvent.begin();
+					long cpuBefore = 0;
+					long bytesBefore = 0;
+					if (budget != null)
 					{
-						if (health[j] <= 0)
-							playerData[j] = new OppData(j, -1, -1, 0);
-						else
-							playerData[j] = new OppData(j, player[j].getAvenue(), player[j].getStreet(), health[j]);
+						cpuBefore = ResourceMeter.cpuTime();
+						bytesBefore = ResourceMeter.allocatedBytes();
 					}
-
-					//the current player takes its turn if it is still in play 
-					if (health[i] > 0)
+					TurnRequest request;
+					try
+					{
+						request = player[i].takeTurn(getEnergy(i), playerData);
+					}
+					catch (RuntimeException | LinkageError | StackOverflowError e)
+					{
+						// LinkageError covers a loaded robot using a class it is not allowed to see
+						if (verbose)
+							System.out.println("Player id " + i + " failed its turn: " + e);
+						request = null;
+					}
+					long turnCpu = 0;
+					long turnBytes = 0;
+					if (budget != null)
+					{
+						turnCpu = ResourceMeter.cpuTime() - cpuBefore;
+						turnBytes = ResourceMeter.allocatedBytes() - bytesBefore;
+						if (player[i] instanceof RemoteFighterRobot)
+						{
+							// this thread only waited for the other process, which measures the turn itself
+							RemoteFighterRobot remote = (RemoteFighterRobot) player[i];
+							turnCpu = remote.getLastTurnCpuNanos();
+							turnBytes = remote.getLastTurnAllocatedBytes();
+						}
+						cpuNanos[i] += turnCpu;
+						allocatedBytes[i] += turnBytes;
+						numDecisions[i]++;
+					}
+					decisionEvent.end();
+					if (request != null && decisionEvent.shouldCommit())
+					{
+						decisionEvent.robotID = i;
+						decisionEvent.robotClass = player[i].getClass();
+						decisionEvent.fightID = request.getFightID();
+						decisionEvent.numRounds = request.getNumRounds();
+						decisionEvent.commit();
+					}
+					if (visibilityRadius >= 0)
+						hideVisiblePlayers(numVisible);
+					if (turnEvent.isEnabled())
+					{
+						turnEvent.turn = turnCount;
+						turnEvent.robotID = i;
+						turnEvent.energy = getEnergy(i);
+						turnEvent.health = health[i];
+					}
+					if (request == null)
+						forfeit(i);
+					else
+						doTurn(i, request, turnCpu, turnBytes);
+					turnEvent.commit();
+					//every player still in play gains energy at the end of the turn, see getEnergy()
+					turnCount ++;
+					if (verbose)
 					{
-						System.out.println("Player id " + i + " initial energy level " + energy[i]);
-						doTurn(i, player[i].takeTurn(energy[i], playerData));
 						System.out.println("Turn Result:");
-						for (int k = 0; k < NUM_PLAYERS; k ++)
+						for (int n = 0; n < numTurns; n ++)
 						{
-							if (health[k] > 0)
-							{
-								if (energy[k] + TURN_ENERGY_INCREASE <= MAX_ENERGY)
-									energy[k] += TURN_ENERGY_INCREASE;
-								else
-									energy[k] = MAX_ENERGY;
-							}
-							System.out.println("ID " + k + " Health " + health[k] + " Energy " + energy[k]);
+							int k = alive.get(n);
+							if (alive.contains(k))
+								System.out.println("ID " + k + " Health " + health[k] + " Energy " + getEnergy(k));
 						}
 						System.out.println("******************************************");
 					}
@@ -94,6 +280,41 @@ public class BattleManagerTest11 {
 			}
 		}
 
+		if (listener != null)
+			listener.battleEnded(getWinnerID(), turnCount);
+	}
+
+	/**
+	 * Asks a player what it would do on the first turn, without playing the turn.  Used to benchmark decisions in a
+	 * Scenario: every call goes to the same robot, so call it on a new battle to see a first decision again.
+	 * @param id    The ID of the player to ask.
+	 * @return      The player's TurnRequest.
+	 */
+	public TurnRequest decide(int id)
+	{
+		Thread thread = Thread.currentThread();
+		ClassLoader engineLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(RobotLoader.SHARED_LOADER);
+		try
+		{
+			setUp();
+			int numVisible = showPlayers(id);
+			TurnRequest request = player[id].takeTurn(getEnergy(id), playerData);
+			if (visibilityRadius >= 0)
+				hideVisiblePlayers(numVisible);
+			return request;
+		}
+		finally
+		{
+			thread.setContextClassLoader(engineLoader);
+		}
+	}
+
+	/**
+	 * Prints the statistics of every player and the penalties they were given
+	 */
+	public void printStats()
+	{
 		System.out.println("Player Statistics");
 		System.out.format("%-5s%-15s%-15s%-20s%-20s%-20s%-25s%-20s", "ID", "Rounds Won", "Rounds Loss", "Fights Initiated", "Fights Defended", "Number of Moves", "Number of Penalities", "Number of Kills");
 		System.out.println();
@@ -121,16 +342,193 @@ public class BattleManagerTest11 {
 		for (int n = 0; n < NUM_PLAYERS; n++)
 		{
 			System.out.println("ID #" + n);
-			ArrayList comments = stats[n].getPenalitiesComments();
-			for (int a = 0; a < comments.size(); a++)
-				System.out.println("\t" + comments.get(a));
+			penalties.print(System.out, n);
 		}
 	}
 
 	/**
-	 * Helper method used to sets up the arena
+	 * Releases the players that hold on to something outside of this JVM (any that are AutoCloseable, like a
+	 * RemoteFighterRobot's process).  Battles that use a RobotPool leave this to the pool, which keeps its robots
+	 * until it drops them (see RobotPool.clear()).
+	 */
+	public void close()
+	{
+		if (robotPool != null)
+			return;
+		for (FighterRobot robot : player)
+		{
+			if (robot instanceof AutoCloseable)
+			{
+				try
+				{
+					((AutoCloseable) robot).close();
+				}
+				catch (Exception e)
+				{
+					throw new IllegalStateException("Could not close player " + robot.getID(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Only shows each player the opponents within a number of moves of it, the others are sent at (-1, -1) with
+	 * UNKNOWN_HEALTH.  Must be called before the battle is set up.
+	 * @param radius    The most moves (avenues plus streets) away an opponent can be seen from, or FULL_VISIBILITY.
+	 */
+	public void setVisibilityRadius(int radius)
+	{
+		if (isSetUp)
+			throw new IllegalStateException("The visibility radius must be set before the battle is set up");
+		if (radius < FULL_VISIBILITY)
+			throw new IllegalArgumentException("Visibility radius " + radius + " is below " + FULL_VISIBILITY);
+		visibilityRadius = radius;
+	}
+
+	/**
+	 * @return  The most moves away an opponent can be seen from, or FULL_VISIBILITY.
+	 */
+	public int getVisibilityRadius()
+	{
+		return visibilityRadius;
+	}
+
+	/**
+	 * Measures the CPU time and memory every takeTurn() call uses from now on, giving a penalty to a robot that goes
+	 * over the budget in a turn.  Use ResourceBudget.UNLIMITED to only measure.
+	 * @param newBudget The budget, or null to stop measuring.
+	 */
+	public void setResourceBudget(ResourceBudget newBudget)
+	{
+		budget = newBudget;
+	}
+
+	/**
+	 * @param id    A player ID.
+	 * @return      The CPU time the player's measured takeTurn() calls used, in nanoseconds.
+	 */
+	public long getCpuNanos(int id)
+	{
+		return cpuNanos[id];
+	}
+
+	/**
+	 * @param id    A player ID.
+	 * @return      The number of bytes the player's measured takeTurn() calls allocated.
+	 */
+	public long getAllocatedBytes(int id)
+	{
+		return allocatedBytes[id];
+	}
+
+	/**
+	 * @param id    A player ID.
+	 * @return      The number of the player's takeTurn() calls that were measured.
+	 */
+	public int getNumDecisions(int id)
+	{
+		return numDecisions[id];
+	}
+
+	/**
+	 * Adds a listener that will be told about the events of the battle as they happen
+	 * @param newListener   The listener to add.
+	 */
+	public void addListener(BattleListener newListener)
+	{
+		if (listener == null)
+			listener = newListener;
+		else
+			listener = new BattleListenerPair(listener, newListener);
+	}
+
+	/**
+	 * @return  The ID of the only player left in play, or -1 if there is none (the battle is still going, is a draw or the last players died together).
+	 */
+	public int getWinnerID()
+	{
+		if (alive.size() != 1)
+			return DEAD_FIGHTER_ID;
+
+		alive.compact();
+		return alive.get(0);
+	}
+
+	/**
+	 * @return  Whether the battle was stopped at MAX_TURNS with more than one player still in play.
+	 */
+	public boolean isDraw()
+	{
+		return turnCount >= MAX_TURNS && alive.size() > 1;
+	}
+
+	/**
+	 * @return  The seed the spawn locations and dice rolls are taken from.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * @return  The number of turns taken so far.
+	 */
+	public int getTurnCount()
+	{
+		return turnCount;
+	}
+
+	/**
+	 * @param id    A player ID.
+	 * @return      The number of turns taken before the player died, or the number of turns so far if it is still in play.
+	 */
+	public int getTurnsSurvived(int id)
+	{
+		if (deathTurn[id] < 0)
+			return turnCount;
+		return deathTurn[id];
+	}
+
+	/**
+	 * @param id    A player ID.
+	 * @return      The health the player has left, 0 once it has died.
 	 */
-	private static void createCity(){       
+	public int getHealth(int id)
+	{
+		return health[id];
+	}
+
+	/**
+	 * @param id    A player ID.
+	 * @return      The type of robot playing as that ID.
+	 */
+	public RobotType getRobotType(int id)
+	{
+		return roster[id];
+	}
+
+	/**
+	 * @param id    A player ID.
+	 * @return      The statistics of that player so far.
+	 */
+	public PlayerStats getStats(int id)
+	{
+		return stats[id];
+	}
+
+	/**
+	 * @return  The penalties given to each player so far.
+	 */
+	public PenaltyLog getPenalties()
+	{
+		return penalties;
+	}
+
+	/**
+	 * Sets up the walls around an arena
+	 * @param arena     the arena, WIDTH avenues by HEIGHT streets
+	 */
+	static void buildWalls(City arena){
 		// Build walls for the arena
 		for (int i = 0; i<WIDTH; i++)
 		{
@@ -146,27 +544,238 @@ public class BattleManagerTest11 {
 	}
 
 	/**
-	 * Helper method used to sets up the players and randomly place them in the arena
+	 * Builds the arena and places the players.  runBattle() and decide() do this themselves the first time, so this
+	 * only needs to be called to keep the set up out of a measurement.
 	 */
-	private static void createPlayers()
+	public void setUp()
 	{
-		Random generator = new Random();
-		// create robots for the arena
-
-		// Case 1: Spawn 3 robots with different stats
-        player[0] = new FROffensive(arena, generator.nextInt(HEIGHT), generator.nextInt(WIDTH), Direction.NORTH, 0, MAX_HEALTH);
-        player[1] = new FRDefensive(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 1, MAX_HEALTH);
-		player[2] = new FRBalanced(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 2, MAX_HEALTH);
-		player[3] = new RahmanFighterRobotV4(arena,generator.nextInt(HEIGHT),generator.nextInt(WIDTH),Direction.NORTH, 3, MAX_HEALTH);
+		if (isSetUp)
+			return;
+		isSetUp = true;
 
+		// a pooled arena already has its walls
+		if (robotPool == null)
+			buildWalls(arena);
+		if (visibilityRadius >= 0)
+			grid = new ArenaGrid(WIDTH, HEIGHT);
+		createPlayers();
+		if (scenario != null)
+			applyScenario();
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			if (player[i] instanceof StandInRobot)
+				forfeit(i);
+		}
+	}
 
+	/**
+	 * Helper method used to sets up the players and randomly place them in the arena (or where the scenario says)
+	 */
+	private void createPlayers()
+	{
+		Random generator = new Random(seed);
+		if (robotPool != null)
+			robotPool.beginBattle();
+		// create robots for the arena, one of each type in the roster
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			int street;
+			int avenue;
+			if (scenario == null)
+			{
+				street = generator.nextInt(HEIGHT);
+				avenue = generator.nextInt(WIDTH);
+			}
+			else
+			{
+				street = scenario.getStreet(i);
+				avenue = scenario.getAvenue(i);
+			}
+			int startHealth = scenario == null ? MAX_HEALTH : scenario.getHealth(i);
+			try
+			{
+				player[i] = createPlayer(roster[i], avenue, street, i, startHealth);
+			}
+			catch (RuntimeException | LinkageError | StackOverflowError e)
+			{
+				// setUp() makes the stand in forfeit once every player is in place
+				if (verbose)
+					System.out.println("Player id " + i + " could not be created: " + e);
+				player[i] = createPlayer(STAND_IN, avenue, street, i, startHealth);
+			}
+		}
 
 		for (int i = 0; i < NUM_PLAYERS; i++)
 		{
 			stats[i] = new PlayerStats();
 			health[i] = MAX_HEALTH;
 			energy[i] = MAX_ENERGY;
+			energyTurn[i] = turnCount;
 			numFights[i] = 0;
+			deathTurn[i] = -1;
+
+			if (visibilityRadius >= 0)
+			{
+				unknownData[i] = new OppData(i, -1, -1, UNKNOWN_HEALTH);
+				playerData[i] = unknownData[i];
+				grid.add(i, player[i].getAvenue(), player[i].getStreet());
+			}
+		}
+	}
+
+	/**
+	 * Helper method used to create a player, or take one from the pool
+	 */
+	private FighterRobot createPlayer(RobotType type, int avenue, int street, int id, int startHealth)
+	{
+		if (robotPool == null)
+			return type.create(arena, street, avenue, Direction.NORTH, id, startHealth);
+		else
+			return robotPool.acquire(type, avenue, street, id, startHealth);
+	}
+
+	/**
+	 * Helper method used to take a player out of the battle when its robot fails, with a penalty of all its health
+	 * @param id    The FighterRobot ID of the player.
+	 */
+	private void forfeit(int id)
+	{
+		if (health[id] > 0)
+			applyPenalty(id, health[id], PenaltyReason.ROBOT_ERROR);
+		playerDied(id);
+	}
+
+	/**
+	 * Helper method used to give the players the health, energy and fight history of the scenario
+	 */
+	private void applyScenario()
+	{
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			health[i] = scenario.getHealth(i);
+			energy[i] = scenario.getEnergy(i);
+		}
+
+		// the robots learn their history the same way they would have during a battle
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			for (int opp = 0; opp < NUM_PLAYERS; opp++)
+			{
+				for (int n = 0; n < scenario.getFightsWon(i, opp); n++)
+					player[i].battleResult(0, opp, 1, 1);
+				for (int n = 0; n < scenario.getFightsLost(i, opp); n++)
+					player[i].battleResult(1, opp, 0, 1);
+			}
+		}
+
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			if (health[i] == 0)
+				playerDied(i);
+		}
+	}
+
+	/**
+	 * Helper method used to fill in the Opponent data the current player is given: every player still in play, or only
+	 * the ones within the visibility radius.  Dead players keep the data they were given when they died.
+	 * @param id    The FighterRobot ID whose currently taking its turn.
+	 * @return      The number of players filled in by showVisiblePlayers, 0 when the whole arena is visible.
+	 */
+	private int showPlayers(int id)
+	{
+		if (visibilityRadius >= 0)
+			return showVisiblePlayers(id);
+
+		for (int n = 0; n < alive.slots(); n++)
+		{
+			int j = alive.get(n);
+			if (alive.contains(j))
+				playerData[j] = new OppData(j, player[j].getAvenue(), player[j].getStreet(), health[j]);
+		}
+		return 0;
+	}
+
+	/**
+	 * Helper method used to fill in the Opponent data of the players within the visibility radius of the current player.
+	 * Every other player keeps its out of sight data, so only the players nearby are looked at.
+	 * @param id    The FighterRobot ID whose currently taking its turn.
+	 * @return      The number of players filled in, their IDs are in visibleIDs.
+	 */
+	private int showVisiblePlayers(int id)
+	{
+		// the player's own cell is within the radius, so it always sees itself
+		int numVisible = grid.collect(player[id].getAvenue(), player[id].getStreet(), visibilityRadius, visibleIDs);
+		for (int n = 0; n < numVisible; n++)
+		{
+			int j = visibleIDs[n];
+			playerData[j] = new OppData(j, player[j].getAvenue(), player[j].getStreet(), health[j]);
+		}
+		return numVisible;
+	}
+
+	/**
+	 * Helper method used to put the players filled in by showVisiblePlayers back to their out of sight data
+	 * @param numVisible    The number of players that were filled in.
+	 */
+	private void hideVisiblePlayers(int numVisible)
+	{
+		for (int n = 0; n < numVisible; n++)
+		{
+			int j = visibleIDs[n];
+			playerData[j] = unknownData[j];
+		}
+	}
+
+	/**
+	 * Helper method used to find the current energy of a FighterRobot.  Players still in play gain TURN_ENERGY_INCREASE
+	 * (up to MAX_ENERGY) at the end of every turn, which is only added here when the energy is needed.
+	 * @param id    The FighterRobot ID.
+	 * @return      The energy of the FighterRobot after the turns taken so far.
+	 */
+	private int getEnergy(int id)
+	{
+		int missedTurns = turnCount - energyTurn[id];
+		// dead players stopped gaining energy on the turn they died, when their energy was last brought up to date
+		if (missedTurns == 0 || !alive.contains(id))
+			return energy[id];
+
+		// same as adding TURN_ENERGY_INCREASE once per turn and capping it at MAX_ENERGY each time
+		long gained = (long) energy[id] + (long) missedTurns * TURN_ENERGY_INCREASE;
+		if (gained > MAX_ENERGY)
+			return MAX_ENERGY;
+		return (int) gained;
+	}
+
+	/**
+	 * Helper method used to bring the energy of a FighterRobot up to date before it is changed
+	 * @param id    The FighterRobot ID.
+	 */
+	private void syncEnergy(int id)
+	{
+		energy[id] = getEnergy(id);
+		energyTurn[id] = turnCount;
+	}
+
+	/**
+	 * Helper method used to take a FighterRobot that has just lost all of its health out of play
+	 * @param id    The FighterRobot ID that died.
+	 */
+	private void playerDied(int id)
+	{
+		// a player fighting itself can be reported dead twice in the same turn
+		if (!alive.contains(id))
+			return;
+
+		alive.remove(id);
+		deathTurn[id] = turnCount;
+		if (listener != null)
+			listener.died(id, turnCount);
+		// dead players are known to everyone, wherever they are, and their data no longer changes
+		playerData[id] = new OppData(id, -1, -1, 0);
+		if (visibilityRadius >= 0)
+		{
+			grid.remove(id, player[id].getAvenue(), player[id].getStreet());
+			unknownData[id] = playerData[id];
 		}
 	}
 
@@ -174,8 +783,10 @@ public class BattleManagerTest11 {
 	 * Helper method used to control the turn taking process involving the movement, fighting and defending between FighterRobots.
 	 * @param attackerID    The FighterRobot ID whose currently taking its turn.
 	 * @param request               The TurnRequest object sent by the FighterRobot whose currently taking its turn.
+	 * @param turnCpu               The CPU time the takeTurn() call used, in nanoseconds, when a resource budget is set.
+	 * @param turnBytes             The number of bytes the takeTurn() call allocated, when a resource budget is set.
 	 */
-	private static void doTurn(int attackerID, TurnRequest request)
+	private void doTurn(int attackerID, TurnRequest request, long turnCpu, long turnBytes)
 	{
 		
 		int numRounds = 0;
@@ -183,9 +794,23 @@ public class BattleManagerTest11 {
 		int defenderID = request.getFightID();
 		int init_attack_health = health[attackerID];
 		
-		if (defenderID != DEAD_FIGHTER_ID && health[defenderID] == 0)
+		// a turn over the budget is penalised before it is played, so the health lost reaches battleResult() below
+		if (budget != null)
+			checkBudget(attackerID, turnCpu, turnBytes);
+
+		// the energy arrays are changed directly below, so bring them up to date first
+		syncEnergy(attackerID);
+		if (defenderID != DEAD_FIGHTER_ID)
+			syncEnergy(defenderID);
+
+		if (health[attackerID] == 0)
+		{
+			// the budget penalty took the last of its health, so the requested move and fight are not played
+			defenderID = DEAD_FIGHTER_ID;
+		}
+		else if (defenderID != DEAD_FIGHTER_ID && health[defenderID] == 0)
 		{
-			applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: ID requested is already dead.");
+			applyPenalty(attackerID, HEALTH_LOST_PENALTY, PenaltyReason.DEAD_TARGET);
 		}
 		else
 		{
@@ -194,13 +819,14 @@ public class BattleManagerTest11 {
 			{       init_defend_health = health[defenderID];
 			}
 
-			System.out.println("fighting id: " + defenderID);
+			if (verbose)
+				System.out.println("fighting id: " + defenderID);
 			if (defenderID == DEAD_FIGHTER_ID)
 			{
 				numFights[attackerID] ++;
 				if (numFights[attackerID] == NUM_ROUNDS_OF_NO_FIGHTS)
 				{
-					applyPenalty(attackerID, NO_FIGHT_PENALTY, "Penalty: Did not initiate a fight in 5 rounds.");
+					applyPenalty(attackerID, NO_FIGHT_PENALTY, PenaltyReason.NO_FIGHT);
 					numFights[attackerID] = 0;
 				}
 			}
@@ -213,41 +839,49 @@ public class BattleManagerTest11 {
 			//requested location is beyond the battlefield
 			if (request.getEndAvenue() > WIDTH - 1 || request.getEndStreet() > HEIGHT - 1 || request.getEndStreet() < 0 || request.getEndAvenue() < 0)
 			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Requested location is beyond battlefield");
-				System.out.println("penalty here: location out of battlefield");
+				applyPenalty(attackerID, HEALTH_LOST_PENALTY, PenaltyReason.OUT_OF_BOUNDS);
+				if (verbose)
+					System.out.println("penalty here: location out of battlefield");
 			}
 			//requested location requires more than the maximum number of moves designated by player
 			else if (numOfMoves > player[attackerID].getNumMoves())
 			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Requested location requires more than maximum number of moves");
+				applyPenalty(attackerID, HEALTH_LOST_PENALTY, PenaltyReason.TOO_MANY_MOVES);
 			}
 			//requested location requires more than the available energy    
 			else if ((energy[attackerID] - numOfMoves * MOVES_ENERGY_COST) < 0)
 			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Requested location requires more than available energy");
+				applyPenalty(attackerID, HEALTH_LOST_PENALTY, PenaltyReason.NOT_ENOUGH_ENERGY);
 			}
 			//penalty applies if requested number of rounds of fight is greater than the attack power assigned
 			else if (player[attackerID].getAttack() < request.getNumRounds() || request.getNumRounds() < -1)
 			{
-				applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: invalid requested number of rounds of fight");
+				applyPenalty(attackerID, HEALTH_LOST_PENALTY, PenaltyReason.INVALID_ROUNDS);
 			}
 			else
 			{
+				int startAvenue = player[attackerID].getAvenue();
+				int startStreet = player[attackerID].getStreet();
 				player[attackerID].goToLocation(request.getEndAvenue(), request.getEndStreet());
+				if (visibilityRadius >= 0)
+					grid.move(attackerID, startAvenue, startStreet, player[attackerID].getAvenue(), player[attackerID].getStreet());
+				if (listener != null)
+					listener.moved(attackerID, startAvenue, startStreet, player[attackerID].getAvenue(), player[attackerID].getStreet());
 				energy[attackerID] = energy[attackerID] - (numOfMoves * MOVES_ENERGY_COST);
 				stats[attackerID].addTotalNumMoves(numOfMoves);
 				
 				//	player dies if moved to the wrong location
 				if (player[attackerID].getAvenue() != request.getEndAvenue() || player[attackerID].getStreet() != request.getEndStreet())
 				{
-					applyPenalty(attackerID, health[attackerID], "Penalty: Moved to the wrong location" );
+					applyPenalty(attackerID, health[attackerID], PenaltyReason.WRONG_LOCATION);
 				}
 				//	fight will occur if the player moves to meet the requested opponent
 				
 				else if (defenderID == attackerID)
 				{
-					applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Try to fight yourself");
-					System.out.println("penalty here: fight yourself");
+					applyPenalty(attackerID, HEALTH_LOST_PENALTY, PenaltyReason.SELF_FIGHT);
+					if (verbose)
+						System.out.println("penalty here: fight yourself");
 				}
 				else if (defenderID != DEAD_FIGHTER_ID)
 				{
@@ -257,11 +891,17 @@ public class BattleManagerTest11 {
 					//	fight only occurs if the player's location is the same as the requested opponent
 					if (energy[attackerID] > 0 && player[attackerID].getAvenue()==player[defenderID].getAvenue() && player[attackerID].getStreet()==player[defenderID].getStreet())
 					{
+						FightEvent fightEvent = new FightEvent();
+						fightEvent.begin();
 						for (int n = 0; n < request.getNumRounds(); n ++)
 						{
 							if (energy[attackerID] > 0 && health[attackerID] > 0 && health[defenderID] > 0)
 							{
 								numRounds ++;
+								int prevAttackerHealthLost = attackerHealthLost;
+								int prevDefenderHealthLost = defenderHealthLost;
+								int attackerRoll = 0;
+								int defenderRoll = 0;
 								if (energy[defenderID] <= 0)
 								{
 									defenderHealthLost ++;  
@@ -272,7 +912,9 @@ public class BattleManagerTest11 {
 								}
 								else
 								{
-									Random generator = new Random();
+									// the dice only depend on the seed, the turn and the round, so paired battles roll the same numbers
+									Random generator = dice;
+									generator.setSeed(Seeds.derive(seed, turnCount, n));
 									int[] attackDice = new int[player[attackerID].getAttack()];
 									int[] defenceDice = new int[player[defenderID].getDefence()];
 
@@ -283,17 +925,22 @@ public class BattleManagerTest11 {
 									for (int j = 0; j < defenceDice.length; j++)
 										defenceDice[j] = generator.nextInt(NUM_SIDES_ON_DICE) + 1;      
 									Arrays.sort(defenceDice);
+									attackerRoll = attackDice[attackDice.length - 1];
+									defenderRoll = defenceDice[defenceDice.length - 1];
 									
 									//output the results from the dice rolled
-									System.out.print("Attacker rolled: ");
-									for (int a = 0; a < attackDice.length; a++)
-										System.out.print(attackDice[a] + " ");  
-									System.out.print (" Defender rolled: ");
-									for (int d = 0; d < defenceDice.length; d++)
-										System.out.print(defenceDice[d] + " "); 
-									System.out.println();
-
-									System.out.println("\t highest number: attacker " + attackDice[player[attackerID].getAttack()-1] + " defender " + defenceDice[player[defenderID].getDefence()-1]);
+									if (verbose)
+									{
+										System.out.print("Attacker rolled: ");
+										for (int a = 0; a < attackDice.length; a++)
+											System.out.print(attackDice[a] + " ");  
+										System.out.print (" Defender rolled: ");
+										for (int d = 0; d < defenceDice.length; d++)
+											System.out.print(defenceDice[d] + " "); 
+										System.out.println();
+
+										System.out.println("\t highest number: attacker " + attackDice[player[attackerID].getAttack()-1] + " defender " + defenceDice[player[defenderID].getDefence()-1]);
+									}
 									
 									//match up the highest numbered rolled from the attacker and defender
 									if (defenceDice[player[defenderID].getDefence()-1] > attackDice[player[attackerID].getAttack()-1])
@@ -321,6 +968,8 @@ public class BattleManagerTest11 {
 									}
 
 								}
+								if (listener != null)
+									listener.roundFought(attackerID, defenderID, attackerRoll, defenderRoll, attackerHealthLost - prevAttackerHealthLost, defenderHealthLost - prevDefenderHealthLost);
 							}
 							//adjust energy level
 							if (energy[attackerID] < 0)
@@ -341,15 +990,31 @@ public class BattleManagerTest11 {
 								health[defenderID] = 0;
 						}
 
+						fightEvent.end();
+						if (fightEvent.shouldCommit())
+						{
+							fightEvent.attackerID = attackerID;
+							fightEvent.defenderID = defenderID;
+							fightEvent.numRounds = numRounds;
+							fightEvent.attackerHealthLost = attackerHealthLost;
+							fightEvent.defenderHealthLost = defenderHealthLost;
+							fightEvent.commit();
+						}
+						if (listener != null)
+							listener.fightFinished(attackerID, defenderID, numRounds, attackerHealthLost, defenderHealthLost);
 						adjustStats(attackerID, defenderID, attackerHealthLost, defenderHealthLost);
 
-						System.out.println("Energy Result: Attacker ID " + attackerID + " energy: " + energy[attackerID] + " Defender ID " + defenderID + " energy: " + energy[defenderID]);
-						System.out.println("Health Result: Attacker ID " + attackerID + " health " + health[attackerID] + " Defender ID " + defenderID + " health " + health[defenderID]);                                              
+						if (verbose)
+						{
+							System.out.println("Energy Result: Attacker ID " + attackerID + " energy: " + energy[attackerID] + " Defender ID " + defenderID + " energy: " + energy[defenderID]);
+							System.out.println("Health Result: Attacker ID " + attackerID + " health " + health[attackerID] + " Defender ID " + defenderID + " health " + health[defenderID]);                                              
+						}
 					}
 					else
 					{
-						applyPenalty(attackerID, HEALTH_LOST_PENALTY, "Penalty: Did not have enough energy to fight or Did not move to the opponent location");
-						System.out.println("penalty here: did not have enough energy");
+						applyPenalty(attackerID, HEALTH_LOST_PENALTY, PenaltyReason.NO_ENERGY_OR_WRONG_CELL);
+						if (verbose)
+							System.out.println("penalty here: did not have enough energy");
 					}
 				}
 			}
@@ -364,7 +1029,7 @@ public class BattleManagerTest11 {
 				player[defenderID].setLabel();
 				
 				if (health[defenderID]==0)
-					num_lost ++;
+					playerDied(defenderID);
 			}
 		}
 		int attacker_lost = init_attack_health - health[attackerID];
@@ -372,10 +1037,25 @@ public class BattleManagerTest11 {
 		player[attackerID].battleResult(attacker_lost, defenderID, defend_lost, numRounds);
 		player[attackerID].setLabel();
 		if (health[attackerID]==0)
-			num_lost ++;
+			playerDied(attackerID);
 	}
 	
-	private static void applyPenalty(int attackerID, int numPenalty, String penality)
+	/**
+	 * Helper method used to give a penalty to a player whose last takeTurn() went over the resource budget.
+	 * Called by doTurn() before the turn is played, which reports the health lost and handles the player's death.
+	 * @param id        The FighterRobot ID whose turn it was.
+	 * @param turnCpu   The CPU time the turn used, in nanoseconds.
+	 * @param turnBytes The number of bytes the turn allocated.
+	 */
+	private void checkBudget(int id, long turnCpu, long turnBytes)
+	{
+		if (turnCpu > budget.getMaxCpuNanos())
+			applyPenalty(id, HEALTH_LOST_PENALTY, PenaltyReason.CPU_BUDGET);
+		if (turnBytes > budget.getMaxAllocatedBytes())
+			applyPenalty(id, HEALTH_LOST_PENALTY, PenaltyReason.ALLOCATION_BUDGET);
+	}
+
+	private void applyPenalty(int attackerID, int numPenalty, PenaltyReason penality)
 	{
 		// prevent the robot from going into negative health due to penalties
 		if (health[attackerID] < numPenalty)
@@ -387,10 +1067,21 @@ public class BattleManagerTest11 {
 		{
 			stats[attackerID].addNumPenalties();
 		}
-		stats[attackerID].addPenaltiesComments(penality);
+		penalties.add(attackerID, penality, turnCount);
+		if (listener != null)
+			listener.penaltyGiven(attackerID, numPenalty, penality);
+
+		PenaltyEvent penaltyEvent = new PenaltyEvent();
+		if (penaltyEvent.shouldCommit())
+		{
+			penaltyEvent.robotID = attackerID;
+			penaltyEvent.numPenalty = numPenalty;
+			penaltyEvent.reason = penality.getMessage();
+			penaltyEvent.commit();
+		}
 	}
 	
-	private static void adjustStats(int attackerID, int defenderID, int attackerHL, int defenderHL)
+	private void adjustStats(int attackerID, int defenderID, int attackerHL, int defenderHL)
 	{
 		//add number of fights win, loss or tie
 		if (health[attackerID] > 0 && health[defenderID] > 0)
@@ -451,7 +1142,32 @@ public class BattleManagerTest11 {
 			else
 				health[attackerID] = MAX_HEALTH;
 		}
-		else
+		else if (verbose)
 			System.out.println("Both Fighers Dead");
 	}
+
+	/**
+	 * Takes the place of a robot that could not be created.  It forfeits before the first turn, so it never moves or
+	 * fights.
+	 */
+	private static class StandInRobot extends FighterRobot {
+
+		StandInRobot(City c, int a, int s, Direction d, int id, int health)
+		{
+			super(c, a, s, d, id, 1, 1, 1);
+		}
+
+		public void goToLocation(int a, int s)
+		{
+		}
+
+		public TurnRequest takeTurn(int energy, OppData[] data)
+		{
+			return new TurnRequest(getAvenue(), getStreet(), DEAD_FIGHTER_ID, 0);
+		}
+
+		public void battleResult(int healthLost, int oppID, int oppHealthLost, int numRoundsFought)
+		{
+		}
+	}
 }
@@ -0,0 +1,82 @@
+package summative;
+
+/**
+ * A small summary of a finished battle that can be kept after the battle (and its arena) are thrown away
+ */
+public class BattleOutcome {
+
+	private final long seed;
+	private final String[] names;
+	private final int[] turnsSurvived;
+	private final int winnerID;
+	private final boolean draw;
+	private final int numTurns;
+
+	/**
+	 * @param battle    a battle that has finished
+	 */
+	public BattleOutcome(BattleManagerTest11 battle)
+	{
+		seed = battle.getSeed();
+		names = new String[BattleManagerTest11.NUM_PLAYERS];
+		turnsSurvived = new int[BattleManagerTest11.NUM_PLAYERS];
+		for (int id = 0; id < names.length; id++)
+		{
+			names[id] = battle.getRobotType(id).getName();
+			turnsSurvived[id] = battle.getTurnsSurvived(id);
+		}
+		winnerID = battle.getWinnerID();
+		draw = battle.isDraw();
+		numTurns = battle.getTurnCount();
+	}
+
+	/**
+	 * @return  the seed the battle was played with
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * @param id    a player ID
+	 * @return      the name of the robot type that played as that ID
+	 */
+	public String getName(int id)
+	{
+		return names[id];
+	}
+
+	/**
+	 * @param id    a player ID
+	 * @return      the number of turns taken before the player died, or the length of the battle if it won
+	 */
+	public int getTurnsSurvived(int id)
+	{
+		return turnsSurvived[id];
+	}
+
+	/**
+	 * @return  the ID of the player that won, or -1 if the battle was a draw or the last players died together
+	 */
+	public int getWinnerID()
+	{
+		return winnerID;
+	}
+
+	/**
+	 * @return  whether the battle was stopped at BattleManagerTest11.MAX_TURNS with more than one player in play
+	 */
+	public boolean isDraw()
+	{
+		return draw;
+	}
+
+	/**
+	 * @return  the number of turns taken in the battle
+	 */
+	public int getNumTurns()
+	{
+		return numTurns;
+	}
+}
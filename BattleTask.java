@@ -0,0 +1,15 @@
+package summative;
+
+/**
+ * One battle of a batch run by Tournament.runBatch().  Is called from several worker threads at the same time, so it
+ * should only use the battle index and its own local variables.
+ * @param <T>   the result kept from each battle
+ */
+public interface BattleTask<T> {
+
+	/**
+	 * @param index     the position of the battle in the batch, from 0
+	 * @return          the result of the battle
+	 */
+	T run(int index);
+}
@@ -0,0 +1,151 @@
+package summative;
+
+import java.util.Arrays;
+
+/**
+ * Records everything that happens in a battle as a compact list of ints, so two runs of the same battle can be
+ * compared event by event.  Every event is a code followed by a fixed number of values: the turns (with the energy and
+ * health of the player taking it), every move, every round of dice, every fight, penalty and death, the end of the
+ * battle and the final Player Statistics of each player.  Positions, health and energy can not drift without changing
+ * one of these.
+ */
+public class BattleTrace implements BattleListener {
+
+	// event codes, and the number of values that follow each one
+	private static final int TURN = 1;
+	private static final int MOVE = 2;
+	private static final int ROUND = 3;
+	private static final int FIGHT = 4;
+	private static final int PENALTY = 5;
+	private static final int DIED = 6;
+	private static final int END = 7;
+	private static final int STATS = 8;
+	private static final int[] NUM_VALUES = {0, 4, 5, 6, 5, 3, 2, 2, 1 + StatsRecord.NUM_KILLS};
+	private static final String[] NAMES = {"", "turn", "move", "round", "fight", "penalty", "died", "end", "stats"};
+
+	private int[] events = new int[256];
+	private int size = 0;
+
+	/**
+	 * Adds the final Player Statistics of every player, once the battle is over
+	 * @param battle    the finished battle this trace was listening to
+	 */
+	public void finish(BattleManagerTest11 battle)
+	{
+		for (int id = 0; id < BattleManagerTest11.NUM_PLAYERS; id++)
+		{
+			StatsRecord record = new StatsRecord();
+			record.add(battle.getStats(id), id == battle.getWinnerID());
+			// the player's ID takes the place of the BATTLES column, which is always 1
+			int[] values = new int[1 + StatsRecord.NUM_KILLS];
+			values[0] = id;
+			for (int column = StatsRecord.BATTLES_WON; column <= StatsRecord.NUM_KILLS; column++)
+				values[column] = (int) record.get(column);
+			add(STATS, values);
+		}
+	}
+
+	/**
+	 * @return  the recorded events
+	 */
+	public int[] toArray()
+	{
+		return Arrays.copyOf(events, size);
+	}
+
+	/**
+	 * Finds where two traces of the same battle first disagree
+	 * @param expected  the trace recorded by the reference engine
+	 * @param actual    the trace to check
+	 * @return          the position of the first event that differs, or -1 if the traces are the same
+	 */
+	public static int firstDivergence(int[] expected, int[] actual)
+	{
+		int position = 0;
+		while (position < expected.length && position < actual.length)
+		{
+			int length = 1 + NUM_VALUES[expected[position]];
+			for (int i = 0; i < length; i++)
+			{
+				if (position + i >= actual.length || expected[position + i] != actual[position + i])
+					return position;
+			}
+			position += length;
+		}
+		return expected.length == actual.length ? -1 : position;
+	}
+
+	/**
+	 * Describes the event at a position of a trace, with the turn it happened on
+	 * @param trace     the trace
+	 * @param position  the position of an event, as returned by firstDivergence()
+	 * @return          a description such as "turn 12: move 2 3 4 5 4", or "end of trace"
+	 */
+	public static String describe(int[] trace, int position)
+	{
+		int turn = 0;
+		int p = 0;
+		while (p < position && p < trace.length)
+		{
+			if (trace[p] == TURN)
+				turn = trace[p + 1];
+			p += 1 + NUM_VALUES[trace[p]];
+		}
+		if (position >= trace.length)
+			return "end of trace";
+		if (trace[position] == TURN)
+			turn = trace[position + 1];
+
+		StringBuilder text = new StringBuilder("turn " + turn + ": " + NAMES[trace[position]]);
+		for (int i = 1; i <= NUM_VALUES[trace[position]]; i++)
+			text.append(' ').append(trace[position + i]);
+		return text.toString();
+	}
+
+	public void turnStarted(int turn, int id, int energy, int health)
+	{
+		add(TURN, turn, id, energy, health);
+	}
+
+	public void moved(int id, int fromAvenue, int fromStreet, int toAvenue, int toStreet)
+	{
+		add(MOVE, id, fromAvenue, fromStreet, toAvenue, toStreet);
+	}
+
+	public void roundFought(int attackerID, int defenderID, int attackerRoll, int defenderRoll, int attackerHealthLost, int defenderHealthLost)
+	{
+		add(ROUND, attackerID, defenderID, attackerRoll, defenderRoll, attackerHealthLost, defenderHealthLost);
+	}
+
+	public void fightFinished(int attackerID, int defenderID, int numRounds, int attackerHealthLost, int defenderHealthLost)
+	{
+		add(FIGHT, attackerID, defenderID, numRounds, attackerHealthLost, defenderHealthLost);
+	}
+
+	public void penaltyGiven(int id, int numPenalty, PenaltyReason reason)
+	{
+		add(PENALTY, id, numPenalty, reason.ordinal());
+	}
+
+	public void died(int id, int turn)
+	{
+		add(DIED, id, turn);
+	}
+
+	public void battleEnded(int winnerID, int numTurns)
+	{
+		add(END, winnerID, numTurns);
+	}
+
+	/**
+	 * Helper method used to add an event, growing the list when it is full
+	 */
+	private void add(int code, int... values)
+	{
+		if (size + 1 + values.length > events.length)
+			events = Arrays.copyOf(events, Math.max(events.length * 2, size + 1 + values.length));
+		events[size] = code;
+		System.arraycopy(values, 0, events, size + 1, values.length);
+		size += 1 + values.length;
+	}
+}
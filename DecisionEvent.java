@@ -0,0 +1,29 @@
+package summative;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the call to a FighterRobot's takeTurn, so time spent in the robots' own code can be
+ * told apart from time spent running the turn.
+ */
+@Name("summative.Decision")
+@Label("Decision")
+@Category("FighterRobot")
+@Description("A FighterRobot deciding on its TurnRequest")
+class DecisionEvent extends jdk.jfr.Event {
+
+	@Label("Robot ID")
+	int robotID;
+
+	@Label("Robot Class")
+	Class<?> robotClass;
+
+	@Label("Fight ID")
+	int fightID;
+
+	@Label("Rounds Requested")
+	int numRounds;
+}
@@ -0,0 +1,308 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Evolves RahmanFighterRobotV4's split of stat points together with the tuning constants of its AI, using a genetic
+ * algorithm against a field of opponents.  All the battles of a generation run as one batch on the tournament's
+ * workers.  After every generation the next population is written to a checkpoint file, so a long run that is
+ * interrupted carries on from the last finished generation when it is started again with the same settings.
+ */
+public class EvolutionSearch {
+
+	static final int NUM_ELITES = 2;                   // best genomes that go on to the next generation unchanged
+	private static final int SELECTION_SIZE = 3;       // genomes in each selection tournament
+	private static final double MUTATION_RATE = 0.2;
+
+	private final RobotType[] field;
+	private final int populationSize;
+	private final int battlesPerGenome;
+	private final long seed;
+
+	private Genome best = null;
+	private double bestScore = -1;
+
+	/**
+	 * Main method that evolves robots against the built in field
+	 * @param args  the checkpoint file, then optionally the number of generations (default 50), the population size
+	 *              (default 24), battles per genome (default 200), the number of worker threads and the seed (default 1)
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		File checkpoint = new File(args[0]);
+		int generations = 50;
+		int populationSize = 24;
+		int battlesPerGenome = 200;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		long seed = 1;
+		if (args.length > 1)
+			generations = Integer.parseInt(args[1]);
+		if (args.length > 2)
+			populationSize = Integer.parseInt(args[2]);
+		if (args.length > 3)
+			battlesPerGenome = Integer.parseInt(args[3]);
+		if (args.length > 4)
+			numThreads = Integer.parseInt(args[4]);
+		if (args.length > 5)
+			seed = Long.parseLong(args[5]);
+
+		City.showFrame(false);
+
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			EvolutionSearch search = new EvolutionSearch(ParameterSearch.DEFAULT_FIELD, populationSize, battlesPerGenome, seed);
+			Genome best = search.run(tournament, checkpoint, generations);
+			System.out.println("Best genome: " + best + " win rate " + search.getBestScore());
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * @param field             the opponents of every battle, NUM_PLAYERS - 1 of them
+	 * @param populationSize    the number of genomes in each generation
+	 * @param battlesPerGenome  the number of battles each genome is scored with in each generation
+	 * @param seed              the seed of the search
+	 */
+	public EvolutionSearch(RobotType[] field, int populationSize, int battlesPerGenome, long seed)
+	{
+		if (field.length != BattleManagerTest11.NUM_PLAYERS - 1)
+			throw new IllegalArgumentException("The field needs " + (BattleManagerTest11.NUM_PLAYERS - 1) + " robots");
+		if (populationSize <= NUM_ELITES)
+			throw new IllegalArgumentException("The population needs more than " + NUM_ELITES + " genomes");
+		this.field = field.clone();
+		this.populationSize = populationSize;
+		this.battlesPerGenome = battlesPerGenome;
+		this.seed = seed;
+	}
+
+	/**
+	 * Runs the search, carrying on from the checkpoint file if it has one
+	 * @param tournament    the tournament to run the battles on
+	 * @param checkpoint    file the population is saved to after every generation
+	 * @param generations   the generation to stop at
+	 * @return              the best genome found
+	 */
+	public Genome run(Tournament tournament, File checkpoint, int generations) throws IOException, InterruptedException
+	{
+		int generation = 0;
+		List<Genome> population;
+		if (checkpoint.exists())
+		{
+			population = new ArrayList<Genome>();
+			generation = readCheckpoint(checkpoint, population);
+			System.out.println("Carrying on from generation " + generation);
+		}
+		else
+			population = firstPopulation();
+
+		for (; generation < generations; generation++)
+		{
+			double[] scores = scoreAll(tournament, population, generation);
+
+			// sort the genomes from best to worst score
+			Integer[] order = new Integer[populationSize];
+			for (int k = 0; k < populationSize; k++)
+				order[k] = k;
+			Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+			Genome leader = population.get(order[0]);
+			if (scores[order[0]] > bestScore)
+			{
+				bestScore = scores[order[0]];
+				best = leader;
+			}
+			System.out.println("Generation " + generation + ": best " + leader + " win rate " + scores[order[0]]);
+
+			population = nextPopulation(population, scores, order, generation);
+			writeCheckpoint(checkpoint, generation + 1, population);
+		}
+		return best;
+	}
+
+	/**
+	 * @return  the score of the best genome found, or -1 if nothing has been scored yet
+	 */
+	public double getBestScore()
+	{
+		return bestScore;
+	}
+
+	/**
+	 * Helper method used to start a population with the default robot and every other way of splitting the stat points
+	 * under random tuning constants
+	 */
+	private List<Genome> firstPopulation()
+	{
+		Random generator = new Random(Seeds.derive(seed, -1));
+		List<Genome> population = new ArrayList<Genome>();
+		population.add(Genome.DEFAULT);
+		while (population.size() < populationSize)
+		{
+			int attack = Genome.MIN_STAT + generator.nextInt(Genome.TOTAL_POINTS - 3 * Genome.MIN_STAT + 1);
+			int defence = Genome.MIN_STAT + generator.nextInt(Genome.TOTAL_POINTS - 2 * Genome.MIN_STAT - attack + 1);
+			int numMoves = Genome.TOTAL_POINTS - attack - defence;
+			Genome random = new Genome(attack, defence, numMoves, StrategyParams.DEFAULT).mutate(1, generator);
+			population.add(new Genome(attack, defence, numMoves, random.getParams()));
+		}
+		return population;
+	}
+
+	/**
+	 * Helper method used to breed the next generation.  The random choices only depend on the seed and the generation,
+	 * so a run that carries on from a checkpoint breeds the same genomes it would have without stopping.
+	 */
+	private List<Genome> nextPopulation(List<Genome> population, double[] scores, Integer[] order, int generation)
+	{
+		return breed(population, scores, order, new Random(Seeds.derive(seed, generation)));
+	}
+
+	/**
+	 * Breeds a new population of the same size as an old one that has been scored
+	 * @param population    the old population
+	 * @param scores        the score of each genome in the old population
+	 * @param order         the positions of the genomes in the old population from best to worst score
+	 * @param generator     where the random choices come from
+	 * @return              the new population, starting with the best genomes of the old one unchanged
+	 */
+	static List<Genome> breed(List<Genome> population, double[] scores, Integer[] order, Random generator)
+	{
+		List<Genome> next = new ArrayList<Genome>();
+		for (int i = 0; i < NUM_ELITES; i++)
+			next.add(population.get(order[i]));
+		while (next.size() < population.size())
+		{
+			Genome mother = select(population, scores, generator);
+			Genome father = select(population, scores, generator);
+			next.add(mother.crossover(father, generator).mutate(MUTATION_RATE, generator));
+		}
+		return next;
+	}
+
+	/**
+	 * Helper method used to pick a parent: the best of a few genomes chosen at random
+	 */
+	private static Genome select(List<Genome> population, double[] scores, Random generator)
+	{
+		int winner = generator.nextInt(population.size());
+		for (int i = 1; i < SELECTION_SIZE; i++)
+		{
+			int other = generator.nextInt(population.size());
+			if (scores[other] > scores[winner])
+				winner = other;
+		}
+		return population.get(winner);
+	}
+
+	/**
+	 * Helper method used to score a whole generation as one batch of battles.  Every genome of a generation plays the
+	 * same battles, so differences in score come from the genomes and not the luck of the dice.
+	 */
+	private double[] scoreAll(Tournament tournament, final List<Genome> population, final int generation) throws InterruptedException
+	{
+		final RobotType[] types = new RobotType[population.size()];
+		for (int k = 0; k < types.length; k++)
+			types[k] = population.get(k).toRobotType();
+
+		List<Boolean> results = tournament.runBatch(types.length * battlesPerGenome, new BattleTask<Boolean>() {
+			public Boolean run(int index)
+			{
+				int number = index % battlesPerGenome;
+				int seat = number % BattleManagerTest11.NUM_PLAYERS;
+				RobotType[] roster = ParameterSearch.seatRoster(types[index / battlesPerGenome], field, seat);
+				BattleManagerTest11 battle = new BattleManagerTest11(roster, Seeds.derive(seed, generation, number), false, RobotPool.forCurrentThread());
+				battle.runBattle();
+				return battle.getWinnerID() == seat;
+			}
+		});
+
+		double[] scores = new double[types.length];
+		for (int k = 0; k < types.length; k++)
+		{
+			int won = 0;
+			for (int b = 0; b < battlesPerGenome; b++)
+			{
+				if (results.get(k * battlesPerGenome + b))
+					won++;
+			}
+			scores[k] = (double) won / battlesPerGenome;
+		}
+		return scores;
+	}
+
+	/**
+	 * Helper method used to save the population about to be scored.  The file is written next to the old one first and
+	 * then moved over it in one step, so there is always a whole checkpoint if this is interrupted.
+	 */
+	private void writeCheckpoint(File checkpoint, int generation, List<Genome> population) throws IOException
+	{
+		File newCheckpoint = new File(checkpoint.getPath() + ".tmp");
+		PrintWriter out = new PrintWriter(new FileWriter(newCheckpoint));
+		out.println("# populationSize=" + populationSize + " battlesPerGenome=" + battlesPerGenome + " seed=" + seed);
+		out.println(generation);
+		out.println(bestScore < 0 ? "-" : best.toLine() + "," + bestScore);
+		for (Genome genome : population)
+			out.println(genome.toLine());
+		// PrintWriter hides write errors, so a cut short file would otherwise replace a good checkpoint
+		boolean failed = out.checkError();
+		out.close();
+		if (failed)
+			throw new IOException("Could not write " + newCheckpoint);
+		Files.move(newCheckpoint.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Helper method used to load a checkpoint
+	 * @return  the generation the population in the checkpoint belongs to
+	 */
+	private int readCheckpoint(File checkpoint, List<Genome> population) throws IOException
+	{
+		BufferedReader in = new BufferedReader(new FileReader(checkpoint));
+		try
+		{
+			String header = in.readLine();
+			String expected = "# populationSize=" + populationSize + " battlesPerGenome=" + battlesPerGenome + " seed=" + seed;
+			if (!expected.equals(header))
+				throw new IllegalStateException("Checkpoint " + checkpoint + " was made with different settings: " + header);
+			int generation = Integer.parseInt(in.readLine());
+
+			String bestLine = in.readLine();
+			if (!bestLine.equals("-"))
+			{
+				int split = bestLine.lastIndexOf(',');
+				best = Genome.parse(bestLine.substring(0, split));
+				bestScore = Double.parseDouble(bestLine.substring(split + 1));
+			}
+
+			String line = in.readLine();
+			while (line != null)
+			{
+				population.add(Genome.parse(line));
+				line = in.readLine();
+			}
+			if (population.size() != populationSize)
+				throw new IllegalStateException("Checkpoint " + checkpoint + " has " + population.size() + " genomes instead of " + populationSize);
+			return generation;
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package summative;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering all the rounds of one fight
+ */
+@Name("summative.Fight")
+@Label("Fight")
+@Category("FighterRobot")
+@Description("A fight between two FighterRobots")
+class FightEvent extends jdk.jfr.Event {
+
+	@Label("Attacker ID")
+	int attackerID;
+
+	@Label("Defender ID")
+	int defenderID;
+
+	@Label("Rounds Fought")
+	int numRounds;
+
+	@Label("Attacker Health Lost")
+	int attackerHealthLost;
+
+	@Label("Defender Health Lost")
+	int defenderHealthLost;
+}
@@ -65,6 +65,35 @@ public abstract class FighterRobot extends RobotSE{
 		this.setLabel("ID: " + this.getID());
 	}
 
+	/**
+	 * This method puts the robot back in play for a new battle, so the same object can be used for many battles.  It
+	 * moves the robot to its new spawn location, turns it to face north and calls resetState() to clear anything the
+	 * robot remembers from the last battle.  Does not need to be overridden by subclasses.
+	 * @param avenue	the avenue to spawn on
+	 * @param street	the street to spawn on
+	 * @param id		the robot's new ID number
+	 * @param health	the health the robot spawns at
+	 */
+	public void reset(int avenue, int street, int id, int health)
+	{
+		this.id = id;
+		this.goToLocation(avenue, street);
+		while (this.getDirection() != Direction.NORTH)
+			this.turnLeft();
+		this.resetState(health);
+		this.setLabel();
+	}
+
+	/**
+	 * This method clears what the robot remembers from its last battle.  Called by reset().
+	 *
+	 * NOTE: Override this method if your robot keeps any information between turns.
+	 * @param health	the health the robot spawns at
+	 */
+	protected void resetState(int health)
+	{
+	}
+
 	public abstract void goToLocation(int a, int s);
 	
 	public abstract TurnRequest takeTurn(int energy, OppData[] data);
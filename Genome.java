@@ -0,0 +1,201 @@
+package summative;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * One candidate of the evolutionary search: how a RahmanFighterRobotV4 splits its stat points between attack, defence
+ * and numMoves, together with the tuning constants of its AI.  Objects of this class never change.
+ */
+public class Genome {
+
+	// every robot in the game has this many stat points to split (5/1/4, 1/5/4 and 3/3/4 all add up to it)
+	public static final int TOTAL_POINTS = 10;
+	public static final int MIN_STAT = 1;
+
+	// the robot RahmanFighterRobotV4 plays as by default
+	public static final Genome DEFAULT = new Genome(3, 3, 4, StrategyParams.DEFAULT);
+
+	private final int attack;
+	private final int defence;
+	private final int numMoves;
+	private final StrategyParams params;
+
+	/**
+	 * @param attack    the attack stat
+	 * @param defence   the defence stat
+	 * @param numMoves  the numMoves stat
+	 * @param params    the tuning constants of the AI
+	 */
+	public Genome(int attack, int defence, int numMoves, StrategyParams params)
+	{
+		if (attack < MIN_STAT || defence < MIN_STAT || numMoves < MIN_STAT || attack + defence + numMoves != TOTAL_POINTS)
+			throw new IllegalArgumentException("Stats " + attack + "/" + defence + "/" + numMoves + " are not a split of " + TOTAL_POINTS + " points");
+		this.attack = attack;
+		this.defence = defence;
+		this.numMoves = numMoves;
+		this.params = params;
+	}
+
+	/**
+	 * Reads a genome written by toLine()
+	 * @param line  the line
+	 * @return      the genome
+	 */
+	public static Genome parse(String line)
+	{
+		String[] parts = line.split(",");
+		if (parts.length != 3 + StrategyParams.SIZE)
+			throw new IllegalArgumentException("Not a genome: " + line);
+		double[] vector = new double[StrategyParams.SIZE];
+		for (int i = 0; i < vector.length; i++)
+			vector[i] = Double.parseDouble(parts[3 + i]);
+		return new Genome(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), StrategyParams.fromArray(vector));
+	}
+
+	/**
+	 * Reads a genome written by write()
+	 * @param in    where to read from
+	 * @return      the genome
+	 */
+	public static Genome read(DataInput in) throws IOException
+	{
+		int attack = in.readByte();
+		int defence = in.readByte();
+		int numMoves = in.readByte();
+		int maxAtkHpDiff = in.readInt();
+		int strongerBonus = in.readInt();
+		double distanceWeight = in.readInt() / 1000.0;
+		double healthWeight = in.readInt() / 1000.0;
+		double lossRateWeight = in.readInt() / 1000.0;
+		return new Genome(attack, defence, numMoves, new StrategyParams(maxAtkHpDiff, strongerBonus, distanceWeight, healthWeight, lossRateWeight));
+	}
+
+	/**
+	 * Writes the genome in 23 bytes: one for each stat, then the parameters as whole numbers (the weights in
+	 * thousandths, which is all the precision StrategyParams.fromArray() keeps)
+	 * @param out   where to write to
+	 */
+	public void write(DataOutput out) throws IOException
+	{
+		out.writeByte(attack);
+		out.writeByte(defence);
+		out.writeByte(numMoves);
+		out.writeInt(params.getMaxAtkHpDiff());
+		out.writeInt(params.getStrongerBonus());
+		out.writeInt((int) Math.round(params.getDistanceWeight() * 1000));
+		out.writeInt((int) Math.round(params.getHealthWeight() * 1000));
+		out.writeInt((int) Math.round(params.getLossRateWeight() * 1000));
+	}
+
+	/**
+	 * @return  the genome as one line of comma separated values: attack, defence, numMoves, then the parameter vector
+	 */
+	public String toLine()
+	{
+		StringBuilder line = new StringBuilder();
+		line.append(attack).append(',').append(defence).append(',').append(numMoves);
+		for (double value : params.toArray())
+			line.append(',').append(value);
+		return line.toString();
+	}
+
+	/**
+	 * Makes a child of two genomes.  The stats come from one parent as a whole, so they still add up to TOTAL_POINTS,
+	 * and each tuning constant comes from either parent.
+	 * @param other     the other parent
+	 * @param generator where the random choices come from
+	 * @return          the child
+	 */
+	public Genome crossover(Genome other, Random generator)
+	{
+		Genome statsParent = generator.nextBoolean() ? this : other;
+		double[] mine = params.toArray();
+		double[] theirs = other.params.toArray();
+		for (int i = 0; i < mine.length; i++)
+		{
+			if (generator.nextBoolean())
+				mine[i] = theirs[i];
+		}
+		return new Genome(statsParent.attack, statsParent.defence, statsParent.numMoves, StrategyParams.fromArray(mine));
+	}
+
+	/**
+	 * Makes a copy of this genome with some random changes
+	 * @param rate      the chance of each part changing
+	 * @param generator where the random choices come from
+	 * @return          the changed copy
+	 */
+	public Genome mutate(double rate, Random generator)
+	{
+		// stats change by moving one point from one stat to another
+		int[] stats = {attack, defence, numMoves};
+		if (generator.nextDouble() < rate)
+		{
+			int from = generator.nextInt(stats.length);
+			int to = (from + 1 + generator.nextInt(stats.length - 1)) % stats.length;
+			if (stats[from] > MIN_STAT)
+			{
+				stats[from]--;
+				stats[to]++;
+			}
+		}
+
+		double[] vector = params.toArray();
+		for (int i = 0; i < vector.length; i++)
+		{
+			if (generator.nextDouble() < rate)
+				vector[i] += generator.nextGaussian() * ParameterSearch.SCALE[i] * 0.2;
+		}
+		return new Genome(stats[0], stats[1], stats[2], StrategyParams.fromArray(vector));
+	}
+
+	/**
+	 * @return  a type of robot that plays as a RahmanFighterRobotV4 with this genome
+	 */
+	public RobotType toRobotType()
+	{
+		return new RobotType("RahmanFighterRobotV4" + this, RobotProfile.RAHMAN_V4.withStats(attack, defence, numMoves).withParams(params));
+	}
+
+	public int getAttack()
+	{
+		return attack;
+	}
+
+	public int getDefence()
+	{
+		return defence;
+	}
+
+	public int getNumMoves()
+	{
+		return numMoves;
+	}
+
+	public StrategyParams getParams()
+	{
+		return params;
+	}
+
+	public boolean equals(Object other)
+	{
+		if (!(other instanceof Genome))
+			return false;
+		Genome g = (Genome) other;
+		return attack == g.attack && defence == g.defence && numMoves == g.numMoves && params.equals(g.params);
+	}
+
+	public int hashCode()
+	{
+		return Arrays.hashCode(new int[] {attack, defence, numMoves, params.hashCode()});
+	}
+
+	public String toString()
+	{
+		return attack + "/" + defence + "/" + numMoves + " " + params;
+	}
+}
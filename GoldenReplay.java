@@ -0,0 +1,231 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Guards the rules of the game while the engine is being optimized.  In record mode it plays a corpus of seeded battles
+ * with the current engine and saves the BattleTrace of each one.  In verify mode it plays the same battles again and
+ * checks that every trace is reproduced event for event, reporting where each battle that does not match first went
+ * differently.  Verifying runs on every worker thread, so a corpus of thousands of battles is checked in seconds.
+ */
+public class GoldenReplay {
+
+	private static final int MAGIC = 0x46524752;   // "FRGR"
+	private static final int VERSION = 1;
+	private static final int MAX_REPORTED = 10;    // divergences printed in full, the rest are only counted
+	private static final int CHUNK_SIZE = 256;     // battles recorded before their traces are written out and dropped
+
+	/**
+	 * Main method that records or verifies a corpus
+	 * @param args  "record", the corpus file, then optionally the number of battles (default 5000) and the seed
+	 *              (default 1); or "verify", the corpus file and optionally the number of worker threads
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		City.showFrame(false);
+
+		File corpus = new File(args[1]);
+		if (args[0].equals("record"))
+		{
+			int numBattles = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+			long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+			Tournament tournament = new Tournament(Runtime.getRuntime().availableProcessors());
+			try
+			{
+				record(tournament, corpus, numBattles, seed);
+			}
+			finally
+			{
+				tournament.shutdown();
+			}
+			System.out.println("Recorded " + numBattles + " battles to " + corpus);
+		}
+		else if (args[0].equals("verify"))
+		{
+			int numThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			Tournament tournament = new Tournament(numThreads);
+			int failed;
+			try
+			{
+				failed = verify(tournament, corpus);
+			}
+			finally
+			{
+				tournament.shutdown();
+			}
+			if (failed > 0)
+				System.exit(1);
+		}
+		else
+			throw new IllegalArgumentException("The first argument must be record or verify");
+	}
+
+	/**
+	 * Plays a corpus of battles between random rosters of the built in robots and saves their traces.  Rosters that
+	 * never finish (such as four FRDefensives) are stopped at BattleManagerTest11.MAX_TURNS and recorded as draws.
+	 * @param tournament    the tournament to run the battles on
+	 * @param corpus        the file to write
+	 * @param numBattles    the number of battles
+	 * @param seed          the seed the rosters and battles are taken from
+	 */
+	public static void record(Tournament tournament, File corpus, int numBattles, final long seed) throws IOException, InterruptedException
+	{
+		final RobotType[] types = BattleManagerTest11.DEFAULT_ROSTER;
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(corpus))));
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(numBattles);
+
+			// only a chunk of traces is kept in memory at a time
+			for (int chunkStart = 0; chunkStart < numBattles; chunkStart += CHUNK_SIZE)
+			{
+				final int firstIndex = chunkStart;
+				List<Golden> battles = tournament.runBatch(Math.min(CHUNK_SIZE, numBattles - chunkStart), new BattleTask<Golden>() {
+					public Golden run(int index)
+					{
+						Random generator = new Random(Seeds.derive(seed, firstIndex + index));
+						RobotType[] roster = new RobotType[BattleManagerTest11.NUM_PLAYERS];
+						for (int i = 0; i < roster.length; i++)
+							roster[i] = types[generator.nextInt(types.length)];
+						long battleSeed = generator.nextLong();
+						return new Golden(roster, battleSeed, play(roster, battleSeed));
+					}
+				});
+
+				for (Golden golden : battles)
+				{
+					out.writeLong(golden.seed);
+					for (RobotType type : golden.roster)
+						out.writeUTF(type.getName());
+					out.writeInt(golden.trace.length);
+					for (int value : golden.trace)
+						out.writeInt(value);
+				}
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	 * Plays every battle of a corpus again and compares the traces
+	 * @param tournament    the tournament to run the battles on
+	 * @param corpus        the file written by record()
+	 * @return              the number of battles that did not match
+	 */
+	public static int verify(Tournament tournament, File corpus) throws IOException, InterruptedException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(corpus))));
+		try
+		{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IllegalStateException(corpus + " is not a golden replay corpus");
+			int numBattles = in.readInt();
+
+			long start = System.nanoTime();
+			int failed = 0;
+			// only a chunk of traces is kept in memory at a time
+			for (int chunkStart = 0; chunkStart < numBattles; chunkStart += CHUNK_SIZE)
+			{
+				final List<Golden> battles = new ArrayList<Golden>();
+				for (int b = chunkStart; b < Math.min(chunkStart + CHUNK_SIZE, numBattles); b++)
+					battles.add(readGolden(in));
+
+				List<String> divergences = tournament.runBatch(battles.size(), new BattleTask<String>() {
+					public String run(int index)
+					{
+						Golden golden = battles.get(index);
+						int[] actual = play(golden.roster, golden.seed);
+						int position = BattleTrace.firstDivergence(golden.trace, actual);
+						if (position < 0)
+							return null;
+						return "expected " + BattleTrace.describe(golden.trace, position) + ", got " + BattleTrace.describe(actual, position);
+					}
+				});
+
+				for (int i = 0; i < divergences.size(); i++)
+				{
+					if (divergences.get(i) != null)
+					{
+						failed++;
+						if (failed <= MAX_REPORTED)
+							System.out.println("Battle " + (chunkStart + i) + " (seed " + battles.get(i).seed + ") diverged: " + divergences.get(i));
+					}
+				}
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.format("%d of %d battles reproduced (%.0f battles per second)%n", numBattles - failed, numBattles, numBattles / seconds);
+			return failed;
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * Plays a battle with the current engine
+	 * @param roster    the type of robot for each player ID
+	 * @param seed      the battle's seed
+	 * @return          the battle's trace
+	 */
+	public static int[] play(RobotType[] roster, long seed)
+	{
+		BattleManagerTest11 battle = new BattleManagerTest11(roster, seed, false, RobotPool.forCurrentThread());
+		BattleTrace trace = new BattleTrace();
+		battle.addListener(trace);
+		battle.runBattle();
+		trace.finish(battle);
+		return trace.toArray();
+	}
+
+	/**
+	 * Helper method used to load the next battle of a corpus
+	 */
+	private static Golden readGolden(DataInputStream in) throws IOException
+	{
+		long seed = in.readLong();
+		RobotType[] roster = new RobotType[BattleManagerTest11.NUM_PLAYERS];
+		for (int i = 0; i < roster.length; i++)
+			roster[i] = RobotType.forName(in.readUTF());
+		int[] trace = new int[in.readInt()];
+		for (int i = 0; i < trace.length; i++)
+			trace[i] = in.readInt();
+		return new Golden(roster, seed, trace);
+	}
+
+	/**
+	 * One battle of a corpus: its roster, seed and the trace the reference engine recorded
+	 */
+	private static class Golden {
+
+		final RobotType[] roster;
+		final long seed;
+		final int[] trace;
+
+		Golden(RobotType[] roster, long seed, int[] trace)
+		{
+			this.roster = roster;
+			this.seed = seed;
+			this.trace = trace;
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Co-evolves RahmanFighterRobotV4 genomes against a hall of fame of earlier ones instead of only the fixed field, so
+ * the search does not settle on a robot that only beats FROffensive, FRDefensive and FRBalanced.  The best genome of
+ * every generation joins the hall of fame, and the opponents of each battle are drawn from the hall of fame and the
+ * fixed field together.  The league is saved to a small binary file after every generation and carries on from it
+ * when started again.
+ *
+ * Each generation is one batch of battles.  The opponents of a battle only depend on the seed, the generation and the
+ * battle's number, and the hall of fame does not change while a batch runs, so the workers share nothing but the
+ * batch's counter of which battle to play next and there is one wait for stragglers per generation.
+ */
+public class League {
+
+	public static final int DEFAULT_HALL_SIZE = 32;
+
+	private static final int MAGIC = 0x46524c47;   // "FRLG"
+	private static final int VERSION = 1;
+
+	private final RobotType[] field;
+	private final int populationSize;
+	private final int battlesPerGenome;
+	private final int hallSize;
+	private final long seed;
+
+	private int generation = 0;
+	private List<Genome> population = new ArrayList<Genome>();
+	private final List<Genome> hall = new ArrayList<Genome>();   // oldest first
+
+	/**
+	 * Main method that runs the league
+	 * @param args  the league file, then optionally the number of generations (default 100), the population size
+	 *              (default 24), battles per genome (default 200), the number of worker threads and the seed (default 1)
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		File file = new File(args[0]);
+		int generations = 100;
+		int populationSize = 24;
+		int battlesPerGenome = 200;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		long seed = 1;
+		if (args.length > 1)
+			generations = Integer.parseInt(args[1]);
+		if (args.length > 2)
+			populationSize = Integer.parseInt(args[2]);
+		if (args.length > 3)
+			battlesPerGenome = Integer.parseInt(args[3]);
+		if (args.length > 4)
+			numThreads = Integer.parseInt(args[4]);
+		if (args.length > 5)
+			seed = Long.parseLong(args[5]);
+
+		City.showFrame(false);
+
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			League league = new League(ParameterSearch.DEFAULT_FIELD, populationSize, battlesPerGenome, DEFAULT_HALL_SIZE, seed);
+			league.run(tournament, file, generations);
+			System.out.println("Hall of fame, oldest first:");
+			for (Genome genome : league.getHallOfFame())
+				System.out.println("\t" + genome);
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * @param field             the fixed opponents that are always in the pool of opponents
+	 * @param populationSize    the number of genomes in each generation
+	 * @param battlesPerGenome  the number of battles each genome is scored with in each generation
+	 * @param hallSize          the most genomes the hall of fame keeps, the oldest are dropped first
+	 * @param seed              the seed of the league
+	 */
+	public League(RobotType[] field, int populationSize, int battlesPerGenome, int hallSize, long seed)
+	{
+		if (populationSize <= EvolutionSearch.NUM_ELITES)
+			throw new IllegalArgumentException("The population needs more than " + EvolutionSearch.NUM_ELITES + " genomes");
+		this.field = field.clone();
+		this.populationSize = populationSize;
+		this.battlesPerGenome = battlesPerGenome;
+		this.hallSize = hallSize;
+		this.seed = seed;
+	}
+
+	/**
+	 * Runs the league, carrying on from the league file if there is one
+	 * @param tournament    the tournament to run the battles on
+	 * @param file          file the league is saved to after every generation
+	 * @param generations   the generation to stop at
+	 */
+	public void run(Tournament tournament, File file, int generations) throws IOException, InterruptedException
+	{
+		if (file.exists())
+		{
+			load(file);
+			System.out.println("Carrying on from generation " + generation + " with " + hall.size() + " genomes in the hall of fame");
+		}
+		else
+		{
+			population.clear();
+			Random generator = new Random(Seeds.derive(seed, -1));
+			population.add(Genome.DEFAULT);
+			while (population.size() < populationSize)
+				population.add(Genome.DEFAULT.mutate(1, generator));
+		}
+
+		for (; generation < generations; generation++)
+		{
+			double[] scores = scoreAll(tournament);
+
+			Integer[] order = new Integer[populationSize];
+			for (int k = 0; k < populationSize; k++)
+				order[k] = k;
+			Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+			Genome leader = population.get(order[0]);
+			System.out.println("Generation " + generation + ": best " + leader + " win rate " + scores[order[0]]);
+			if (!hall.contains(leader))
+			{
+				hall.add(leader);
+				if (hall.size() > hallSize)
+					hall.remove(0);
+			}
+
+			population = EvolutionSearch.breed(population, scores, order, new Random(Seeds.derive(seed, generation)));
+			save(file, generation + 1);
+		}
+	}
+
+	/**
+	 * @return  the genomes in the hall of fame, oldest first
+	 */
+	public List<Genome> getHallOfFame()
+	{
+		return new ArrayList<Genome>(hall);
+	}
+
+	/**
+	 * Helper method used to score the population as one batch of battles.  Battle b of every genome has the same
+	 * opponents and seed, so the genomes are compared on the same battles.
+	 */
+	private double[] scoreAll(Tournament tournament) throws InterruptedException
+	{
+		final RobotType[] candidates = new RobotType[population.size()];
+		for (int k = 0; k < candidates.length; k++)
+			candidates[k] = population.get(k).toRobotType();
+
+		// the pool of opponents does not change until the batch is done, so the workers can all read it
+		final RobotType[] pool = new RobotType[field.length + hall.size()];
+		System.arraycopy(field, 0, pool, 0, field.length);
+		for (int h = 0; h < hall.size(); h++)
+			pool[field.length + h] = hall.get(h).toRobotType();
+
+		final int gen = generation;
+		List<Boolean> results = tournament.runBatch(candidates.length * battlesPerGenome, new BattleTask<Boolean>() {
+			public Boolean run(int index)
+			{
+				int number = index % battlesPerGenome;
+				Random picker = new Random(Seeds.derive(seed, gen, number));
+				RobotType[] opponents = new RobotType[BattleManagerTest11.NUM_PLAYERS - 1];
+				for (int i = 0; i < opponents.length; i++)
+					opponents[i] = pool[picker.nextInt(pool.length)];
+
+				int seat = number % BattleManagerTest11.NUM_PLAYERS;
+				RobotType[] roster = ParameterSearch.seatRoster(candidates[index / battlesPerGenome], opponents, seat);
+				BattleManagerTest11 battle = new BattleManagerTest11(roster, picker.nextLong(), false, RobotPool.forCurrentThread());
+				battle.runBattle();
+				return battle.getWinnerID() == seat;
+			}
+		});
+
+		double[] scores = new double[candidates.length];
+		for (int k = 0; k < candidates.length; k++)
+		{
+			int won = 0;
+			for (int b = 0; b < battlesPerGenome; b++)
+			{
+				if (results.get(k * battlesPerGenome + b))
+					won++;
+			}
+			scores[k] = (double) won / battlesPerGenome;
+		}
+		return scores;
+	}
+
+	/**
+	 * Helper method used to save the league: a header, the generation about to be scored, its population and the hall
+	 * of fame.  The file is written next to the old one first and then moved over it in one step, so there is always a
+	 * whole league file if this is interrupted.
+	 */
+	private void save(File file, int nextGeneration) throws IOException
+	{
+		File newFile = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(newFile)));
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(seed);
+			out.writeInt(battlesPerGenome);
+			out.writeInt(nextGeneration);
+			out.writeInt(population.size());
+			for (Genome genome : population)
+				genome.write(out);
+			out.writeInt(hall.size());
+			for (Genome genome : hall)
+				genome.write(out);
+		}
+		finally
+		{
+			out.close();
+		}
+		Files.move(newFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Helper method used to load a league saved by save()
+	 */
+	private void load(File file) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try
+		{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IllegalStateException(file + " is not a league file");
+			long fileSeed = in.readLong();
+			int fileBattles = in.readInt();
+			if (fileSeed != seed || fileBattles != battlesPerGenome)
+				throw new IllegalStateException("League " + file + " was made with different settings: seed=" + fileSeed + " battlesPerGenome=" + fileBattles);
+			generation = in.readInt();
+
+			int size = in.readInt();
+			if (size != populationSize)
+				throw new IllegalStateException("League " + file + " has " + size + " genomes instead of " + populationSize);
+			population.clear();
+			for (int k = 0; k < size; k++)
+				population.add(Genome.read(in));
+
+			hall.clear();
+			int numHall = in.readInt();
+			for (int h = 0; h < numHall; h++)
+				hall.add(Genome.read(in));
+			while (hall.size() > hallSize)
+				hall.remove(0);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,327 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays every robot against every combination of opponents and writes each robot's win rate against each combination
+ * as a CSV file, with a 95% Wilson interval and the number of battles that were draws.  Finished cells of the matrix
+ * are written to a checkpoint file as they complete, so running the same matrix again after it was interrupted only
+ * plays the cells that are missing.
+ */
+public class MatchupMatrix {
+
+	// Outcome of a single battle for the subject
+	private static final int LOST = 0;
+	private static final int WON = 1;
+	private static final int DRAW = 2;
+
+	private final RobotType[] types;
+	private final int battlesPerCell;
+	private final long seed;
+	private final List<int[]> cells = new ArrayList<int[]>();   // {subject, opponent 1, opponent 2, ...} as indexes into types
+
+	/**
+	 * Main method that runs a matrix of the built in robots
+	 * @param args  the CSV file to write, then optionally the number of battles per cell (default 200), the number of
+	 *              worker threads, the seed (default 1) and the names of the robots to include (default all four)
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		File output = new File(args[0]);
+		int battlesPerCell = 200;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		long seed = 1;
+		if (args.length > 1)
+			battlesPerCell = Integer.parseInt(args[1]);
+		if (args.length > 2)
+			numThreads = Integer.parseInt(args[2]);
+		if (args.length > 3)
+			seed = Long.parseLong(args[3]);
+
+		RobotType[] types = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED, RobotType.RAHMAN_V4};
+		if (args.length > 4)
+		{
+			types = new RobotType[args.length - 4];
+			for (int i = 0; i < types.length; i++)
+				types[i] = RobotType.forName(args[i + 4]);
+		}
+
+		City.showFrame(false);
+
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			MatchupMatrix matrix = new MatchupMatrix(types, battlesPerCell, seed);
+			matrix.run(tournament, new File(args[0] + ".checkpoint"), output);
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * @param types             the robots to include in the matrix
+	 * @param battlesPerCell    the number of battles to play for each robot and combination of opponents
+	 * @param seed              the seed every battle's seed is derived from
+	 */
+	public MatchupMatrix(RobotType[] types, int battlesPerCell, long seed)
+	{
+		this.types = types.clone();
+		this.battlesPerCell = battlesPerCell;
+		this.seed = seed;
+
+		// every robot against every combination (with repeats, in no particular order) of the other players
+		int numOpponents = BattleManagerTest11.NUM_PLAYERS - 1;
+		for (int subject = 0; subject < types.length; subject++)
+		{
+			int[] opponents = new int[numOpponents];
+			do
+			{
+				int[] cell = new int[numOpponents + 1];
+				cell[0] = subject;
+				System.arraycopy(opponents, 0, cell, 1, numOpponents);
+				cells.add(cell);
+			}
+			while (nextCombination(opponents, types.length));
+		}
+	}
+
+	/**
+	 * Plays every cell that is not in the checkpoint file yet, then writes the whole matrix to the output file
+	 * @param tournament    the tournament to run the battles on
+	 * @param checkpoint    file the finished cells are added to as they complete
+	 * @param output        the CSV file to write
+	 */
+	public void run(Tournament tournament, File checkpoint, File output) throws IOException, InterruptedException
+	{
+		Map<String, int[]> results = readCheckpoint(checkpoint);
+
+		List<int[]> missing = new ArrayList<int[]>();
+		for (int[] cell : cells)
+		{
+			if (!results.containsKey(cellName(cell)))
+				missing.add(cell);
+		}
+
+		// play enough cells at a time to keep every worker busy, then save them before starting the next group
+		int cellsPerGroup = Math.max(1, tournament.getNumThreads() * 8 / battlesPerCell);
+		boolean cutShort = !endsWithNewline(checkpoint);
+		PrintWriter checkpointOut = new PrintWriter(new FileWriter(checkpoint, true));
+		try
+		{
+			// finish a line cut short by an interruption so the next cell does not run onto it
+			if (cutShort)
+				checkpointOut.println();
+			for (int start = 0; start < missing.size(); start += cellsPerGroup)
+			{
+				final List<int[]> group = missing.subList(start, Math.min(start + cellsPerGroup, missing.size()));
+				List<Integer> outcomes = tournament.runBatch(group.size() * battlesPerCell, new BattleTask<Integer>() {
+					public Integer run(int index)
+					{
+						return playBattle(group.get(index / battlesPerCell), index % battlesPerCell);
+					}
+				});
+
+				for (int c = 0; c < group.size(); c++)
+				{
+					int cellWins = 0;
+					int cellDraws = 0;
+					for (int b = 0; b < battlesPerCell; b++)
+					{
+						int outcome = outcomes.get(c * battlesPerCell + b);
+						if (outcome == WON)
+							cellWins++;
+						else if (outcome == DRAW)
+							cellDraws++;
+					}
+					results.put(cellName(group.get(c)), new int[] {cellWins, cellDraws});
+					checkpointOut.println(cellName(group.get(c)) + "," + cellWins + "," + cellDraws + ";");
+				}
+				checkpointOut.flush();
+			}
+		}
+		finally
+		{
+			checkpointOut.close();
+		}
+
+		writeCsv(output, results);
+	}
+
+	/**
+	 * Helper method used to play one battle of a cell
+	 * @param cell      the subject followed by its opponents
+	 * @param number    the battle number within the cell
+	 * @return          WON, LOST or DRAW (the battle reached BattleManagerTest11.MAX_TURNS)
+	 */
+	private int playBattle(int[] cell, int number)
+	{
+		// the subject moves through every seat, so no robot always gets the first turn
+		int subjectSeat = number % BattleManagerTest11.NUM_PLAYERS;
+		RobotType[] roster = new RobotType[BattleManagerTest11.NUM_PLAYERS];
+		int next = 1;
+		for (int seat = 0; seat < roster.length; seat++)
+		{
+			if (seat == subjectSeat)
+				roster[seat] = types[cell[0]];
+			else
+			{
+				roster[seat] = types[cell[next]];
+				next++;
+			}
+		}
+
+		BattleManagerTest11 battle = new BattleManagerTest11(roster, Seeds.derive(seed, cellName(cell).hashCode(), number), false, RobotPool.forCurrentThread());
+		battle.runBattle();
+		if (battle.isDraw())
+			return DRAW;
+		return battle.getWinnerID() == subjectSeat ? WON : LOST;
+	}
+
+	/**
+	 * Helper method used to read the cells finished by an earlier run
+	 */
+	private Map<String, int[]> readCheckpoint(File checkpoint) throws IOException
+	{
+		Map<String, int[]> results = new HashMap<String, int[]>();
+		String header = "# battlesPerCell=" + battlesPerCell + " seed=" + seed + " maxTurns=" + BattleManagerTest11.MAX_TURNS;
+		if (!checkpoint.exists())
+		{
+			PrintWriter out = new PrintWriter(new FileWriter(checkpoint));
+			out.println(header);
+			out.close();
+			return results;
+		}
+
+		BufferedReader in = new BufferedReader(new FileReader(checkpoint));
+		try
+		{
+			String line = in.readLine();
+			if (!header.equals(line))
+				throw new IllegalStateException("Checkpoint " + checkpoint + " was made with different settings: " + line);
+
+			line = in.readLine();
+			while (line != null)
+			{
+				// a line cut short by an interruption has no ';' at the end, and its cell is played again
+				int drawsComma = line.lastIndexOf(',');
+				int winsComma = line.lastIndexOf(',', drawsComma - 1);
+				if (winsComma > 0 && line.endsWith(";"))
+				{
+					int cellWins = Integer.parseInt(line.substring(winsComma + 1, drawsComma));
+					int cellDraws = Integer.parseInt(line.substring(drawsComma + 1, line.length() - 1));
+					results.put(line.substring(0, winsComma), new int[] {cellWins, cellDraws});
+				}
+				line = in.readLine();
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+		return results;
+	}
+
+	/**
+	 * Helper method used to write the finished matrix
+	 */
+	private void writeCsv(File output, Map<String, int[]> results) throws IOException
+	{
+		PrintWriter out = new PrintWriter(new FileWriter(output));
+		try
+		{
+			out.println("robot,opponents,battles,wins,draws,win_rate,wilson_low,wilson_high");
+			for (int[] cell : cells)
+			{
+				int cellWins = results.get(cellName(cell))[0];
+				int cellDraws = results.get(cellName(cell))[1];
+				StringBuilder opponents = new StringBuilder();
+				for (int i = 1; i < cell.length; i++)
+				{
+					if (i > 1)
+						opponents.append('+');
+					opponents.append(types[cell[i]].getName());
+				}
+				out.format("%s,%s,%d,%d,%d,%.4f,%.4f,%.4f%n", types[cell[0]].getName(), opponents, battlesPerCell, cellWins, cellDraws,
+						(double) cellWins / battlesPerCell,
+						WinRate.wilsonLower(cellWins, battlesPerCell, WinRate.Z_95),
+						WinRate.wilsonUpper(cellWins, battlesPerCell, WinRate.Z_95));
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	 * Helper method used to check whether the last line of a file is complete
+	 */
+	private static boolean endsWithNewline(File file) throws IOException
+	{
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try
+		{
+			if (in.length() == 0)
+				return true;
+			in.seek(in.length() - 1);
+			return in.read() == '\n';
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * Helper method used to name a cell by the robots in it, with the opponents sorted by name so the checkpoint (and
+	 * the seeds of the cell's battles) still work if the order of types changes
+	 */
+	private String cellName(int[] cell)
+	{
+		String[] opponents = new String[cell.length - 1];
+		for (int i = 1; i < cell.length; i++)
+			opponents[i - 1] = types[cell[i]].getName();
+		Arrays.sort(opponents);
+
+		StringBuilder name = new StringBuilder(types[cell[0]].getName());
+		name.append(" vs");
+		for (String opponent : opponents)
+			name.append(' ').append(opponent);
+		return name.toString();
+	}
+
+	/**
+	 * Helper method used to step to the next combination with repeats, kept in non-decreasing order
+	 * @param combination   the current combination, changed to the next one
+	 * @param numTypes      the number of values each position can take
+	 * @return              false if the combination was the last one
+	 */
+	private static boolean nextCombination(int[] combination, int numTypes)
+	{
+		int i = combination.length - 1;
+		while (i >= 0 && combination[i] == numTypes - 1)
+			i--;
+		if (i < 0)
+			return false;
+
+		combination[i]++;
+		for (int j = i + 1; j < combination.length; j++)
+			combination[j] = combination[i];
+		return true;
+	}
+}
@@ -0,0 +1,298 @@
+package summative;
+
+import becker.robots.City;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tunes RahmanFighterRobotV4's StrategyParams with a separable CMA-ES (an evolution strategy that learns a step size
+ * for each parameter).  Every candidate is scored by its win rate over the same set of seeded battles against a field
+ * of opponents, and all of a generation's battles run as one batch on the tournament's workers.  Scores are cached by
+ * parameters and seed set, so a point that comes up again is not played again.
+ */
+public class ParameterSearch {
+
+	// The opponents of every battle
+	public static final RobotType[] DEFAULT_FIELD = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED};
+
+	// How far apart values of each parameter usually are, so the search can use the same step size for all of them
+	static final double[] SCALE = {10, 5, 0.5, 0.5, 0.5};
+
+	private final RobotType[] field;
+	private final int battlesPerCandidate;
+	private final long seed;
+	private final Map<String, Double> cache = new ConcurrentHashMap<String, Double>();
+
+	/**
+	 * Main method that tunes the parameters and prints the best ones found in each generation
+	 * @param args  optionally the number of generations (default 30), battles per candidate (default 200), the number of
+	 *              worker threads and the seed (default 1)
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		int generations = 30;
+		int battlesPerCandidate = 200;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		long seed = 1;
+		if (args.length > 0)
+			generations = Integer.parseInt(args[0]);
+		if (args.length > 1)
+			battlesPerCandidate = Integer.parseInt(args[1]);
+		if (args.length > 2)
+			numThreads = Integer.parseInt(args[2]);
+		if (args.length > 3)
+			seed = Long.parseLong(args[3]);
+
+		City.showFrame(false);
+
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			ParameterSearch search = new ParameterSearch(DEFAULT_FIELD, battlesPerCandidate, seed);
+			StrategyParams best = search.run(tournament, StrategyParams.DEFAULT, generations);
+			System.out.println("Best parameters: " + best + " win rate " + search.score(tournament, best));
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * @param field                 the opponents of every battle, NUM_PLAYERS - 1 of them
+	 * @param battlesPerCandidate   the number of battles each candidate is scored with
+	 * @param seed                  the seed of the search; also decides the set of battles every candidate plays
+	 */
+	public ParameterSearch(RobotType[] field, int battlesPerCandidate, long seed)
+	{
+		if (field.length != BattleManagerTest11.NUM_PLAYERS - 1)
+			throw new IllegalArgumentException("The field needs " + (BattleManagerTest11.NUM_PLAYERS - 1) + " robots");
+		this.field = field.clone();
+		this.battlesPerCandidate = battlesPerCandidate;
+		this.seed = seed;
+	}
+
+	/**
+	 * Runs the search
+	 * @param tournament    the tournament to run the battles on
+	 * @param start         the parameters to start from
+	 * @param generations   the number of generations to run
+	 * @return              the best parameters found
+	 */
+	public StrategyParams run(Tournament tournament, StrategyParams start, int generations) throws InterruptedException
+	{
+		int n = StrategyParams.SIZE;
+		int lambda = 4 + (int) (3 * Math.log(n));
+		int mu = lambda / 2;
+
+		// recombination weights and the learning rates of separable CMA-ES
+		double[] weights = new double[mu];
+		double sum = 0;
+		for (int i = 0; i < mu; i++)
+		{
+			weights[i] = Math.log(mu + 0.5) - Math.log(i + 1);
+			sum += weights[i];
+		}
+		double sumSquares = 0;
+		for (int i = 0; i < mu; i++)
+		{
+			weights[i] /= sum;
+			sumSquares += weights[i] * weights[i];
+		}
+		double muEff = 1 / sumSquares;
+		double cSigma = (muEff + 2) / (n + muEff + 5);
+		double dSigma = 1 + 2 * Math.max(0, Math.sqrt((muEff - 1) / (n + 1)) - 1) + cSigma;
+		double cC = (4 + muEff / n) / (n + 4 + 2 * muEff / n);
+		double c1 = 2 / ((n + 1.3) * (n + 1.3) + muEff) * (n + 2) / 3.0;
+		double cMu = Math.min(1 - c1, 2 * (muEff - 2 + 1 / muEff) / ((n + 2) * (n + 2) + muEff) * (n + 2) / 3.0);
+		double expectedNorm = Math.sqrt(n) * (1 - 1.0 / (4 * n) + 1.0 / (21 * n * n));
+
+		// the search works on the parameters divided by SCALE
+		double[] mean = start.toArray();
+		for (int j = 0; j < n; j++)
+			mean[j] /= SCALE[j];
+		double sigma = 0.3;
+		double[] diagonal = new double[n];
+		Arrays.fill(diagonal, 1);
+		double[] pathSigma = new double[n];
+		double[] pathC = new double[n];
+
+		Random generator = new Random(seed);
+		StrategyParams best = start;
+		double bestScore = score(tournament, start);
+
+		for (int generation = 0; generation < generations; generation++)
+		{
+			double[][] z = new double[lambda][n];
+			double[][] y = new double[lambda][n];
+			StrategyParams[] candidates = new StrategyParams[lambda];
+			for (int k = 0; k < lambda; k++)
+			{
+				double[] x = new double[n];
+				for (int j = 0; j < n; j++)
+				{
+					z[k][j] = generator.nextGaussian();
+					y[k][j] = Math.sqrt(diagonal[j]) * z[k][j];
+					x[j] = (mean[j] + sigma * y[k][j]) * SCALE[j];
+				}
+				candidates[k] = StrategyParams.fromArray(x);
+			}
+
+			double[] scores = scoreAll(tournament, candidates);
+
+			// sort the candidates from best to worst score
+			Integer[] order = new Integer[lambda];
+			for (int k = 0; k < lambda; k++)
+				order[k] = k;
+			final double[] finalScores = scores;
+			Arrays.sort(order, (a, b) -> Double.compare(finalScores[b], finalScores[a]));
+
+			if (scores[order[0]] > bestScore)
+			{
+				bestScore = scores[order[0]];
+				best = candidates[order[0]];
+			}
+			System.out.println("Generation " + generation + ": best " + candidates[order[0]] + " win rate " + scores[order[0]] + ", step size " + sigma);
+
+			// move the mean towards the best candidates and update the evolution paths
+			double[] meanStepY = new double[n];
+			double[] meanStepZ = new double[n];
+			for (int i = 0; i < mu; i++)
+			{
+				for (int j = 0; j < n; j++)
+				{
+					meanStepY[j] += weights[i] * y[order[i]][j];
+					meanStepZ[j] += weights[i] * z[order[i]][j];
+				}
+			}
+			double pathNorm = 0;
+			for (int j = 0; j < n; j++)
+			{
+				mean[j] += sigma * meanStepY[j];
+				pathSigma[j] = (1 - cSigma) * pathSigma[j] + Math.sqrt(cSigma * (2 - cSigma) * muEff) * meanStepZ[j];
+				pathC[j] = (1 - cC) * pathC[j] + Math.sqrt(cC * (2 - cC) * muEff) * meanStepY[j];
+				pathNorm += pathSigma[j] * pathSigma[j];
+			}
+
+			// learn the spread of each parameter, then the overall step size
+			for (int j = 0; j < n; j++)
+			{
+				double rankMu = 0;
+				for (int i = 0; i < mu; i++)
+					rankMu += weights[i] * y[order[i]][j] * y[order[i]][j];
+				diagonal[j] = (1 - c1 - cMu) * diagonal[j] + c1 * pathC[j] * pathC[j] + cMu * rankMu;
+			}
+			sigma *= Math.exp(cSigma / dSigma * (Math.sqrt(pathNorm) / expectedNorm - 1));
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the win rate of one set of parameters
+	 * @param tournament    the tournament to run the battles on
+	 * @param params        the parameters
+	 * @return              the fraction of battles won
+	 */
+	public double score(Tournament tournament, StrategyParams params) throws InterruptedException
+	{
+		return scoreAll(tournament, new StrategyParams[] {params})[0];
+	}
+
+	/**
+	 * Helper method used to score a group of candidates, playing the battles of every candidate that is not cached yet as one batch
+	 */
+	private double[] scoreAll(Tournament tournament, StrategyParams[] candidates) throws InterruptedException
+	{
+		double[] scores = new double[candidates.length];
+		final List<StrategyParams> toPlay = new ArrayList<StrategyParams>();
+		for (int k = 0; k < candidates.length; k++)
+		{
+			Double cached = cache.get(cacheKey(candidates[k]));
+			if (cached != null)
+				scores[k] = cached;
+			else if (!toPlay.contains(candidates[k]))
+				toPlay.add(candidates[k]);
+		}
+
+		if (!toPlay.isEmpty())
+		{
+			// one type per candidate, so the RobotPool of each worker can reuse its robots from battle to battle
+			final RobotType[] types = new RobotType[toPlay.size()];
+			for (int c = 0; c < types.length; c++)
+				types[c] = new RobotType("RahmanFighterRobotV4" + toPlay.get(c), RobotProfile.RAHMAN_V4.withParams(toPlay.get(c)));
+
+			List<Boolean> results = tournament.runBatch(toPlay.size() * battlesPerCandidate, new BattleTask<Boolean>() {
+				public Boolean run(int index)
+				{
+					return playBattle(types[index / battlesPerCandidate], index % battlesPerCandidate);
+				}
+			});
+			for (int c = 0; c < toPlay.size(); c++)
+			{
+				int won = 0;
+				for (int b = 0; b < battlesPerCandidate; b++)
+				{
+					if (results.get(c * battlesPerCandidate + b))
+						won++;
+				}
+				cache.put(cacheKey(toPlay.get(c)), (double) won / battlesPerCandidate);
+			}
+			for (int k = 0; k < candidates.length; k++)
+				scores[k] = cache.get(cacheKey(candidates[k]));
+		}
+		return scores;
+	}
+
+	/**
+	 * Helper method used to play one battle of the candidate's seed set
+	 * @return  whether the candidate won
+	 */
+	private boolean playBattle(RobotType candidate, int number)
+	{
+		// the candidate moves through every seat, so it does not always get the first turn
+		int seat = number % BattleManagerTest11.NUM_PLAYERS;
+		RobotType[] roster = seatRoster(candidate, field, seat);
+
+		// every candidate plays the same battles, so differences in score come from the parameters and not the luck of the dice
+		BattleManagerTest11 battle = new BattleManagerTest11(roster, Seeds.derive(seed, number), false, RobotPool.forCurrentThread());
+		battle.runBattle();
+		return battle.getWinnerID() == seat;
+	}
+
+	/**
+	 * Builds a roster with a candidate in one seat and the field in the others
+	 * @param candidate the robot being scored
+	 * @param field     its opponents, NUM_PLAYERS - 1 of them
+	 * @param seat      the ID the candidate plays as
+	 * @return          the roster
+	 */
+	static RobotType[] seatRoster(RobotType candidate, RobotType[] field, int seat)
+	{
+		RobotType[] roster = new RobotType[BattleManagerTest11.NUM_PLAYERS];
+		int next = 0;
+		for (int i = 0; i < roster.length; i++)
+		{
+			if (i == seat)
+				roster[i] = candidate;
+			else
+			{
+				roster[i] = field[next];
+				next++;
+			}
+		}
+		return roster;
+	}
+
+	/**
+	 * Helper method used to name a score in the cache by the parameters and the set of battles it was played with
+	 */
+	private String cacheKey(StrategyParams params)
+	{
+		return params + "@" + seed + "x" + battlesPerCandidate;
+	}
+}
@@ -0,0 +1,25 @@
+package summative;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a penalty given to a FighterRobot
+ */
+@Name("summative.Penalty")
+@Label("Penalty")
+@Category("FighterRobot")
+@Description("A penalty given to a FighterRobot")
+class PenaltyEvent extends jdk.jfr.Event {
+
+	@Label("Robot ID")
+	int robotID;
+
+	@Label("Health Lost")
+	int numPenalty;
+
+	@Label("Reason")
+	String reason;
+}
@@ -0,0 +1,74 @@
+package summative;
+
+import java.io.PrintStream;
+
+/**
+ * Counts the penalties given to each player in a battle by reason, and keeps the first few penalties of each player
+ * along with the turn they were given on.  Uses the same amount of memory however many penalties are given.
+ */
+public class PenaltyLog {
+
+	private static final PenaltyReason[] REASONS = PenaltyReason.values();
+
+	private final int sampleSize;
+	private final int[][] counts;          // [player ID][reason] number of penalties
+	private final byte[][] sampleReasons;  // [player ID][n] reason of the player's nth penalty
+	private final int[][] sampleTurns;     // [player ID][n] turn of the player's nth penalty
+	private final int[] numSampled;
+
+	/**
+	 * @param numPlayers    the number of players in the battle
+	 * @param sampleSize    how many of each player's first penalties to keep, 0 to only count them
+	 */
+	public PenaltyLog(int numPlayers, int sampleSize)
+	{
+		this.sampleSize = sampleSize;
+		counts = new int[numPlayers][REASONS.length];
+		sampleReasons = new byte[numPlayers][sampleSize];
+		sampleTurns = new int[numPlayers][sampleSize];
+		numSampled = new int[numPlayers];
+	}
+
+	/**
+	 * Records a penalty
+	 * @param id        the player ID given the penalty
+	 * @param reason    why the penalty was given
+	 * @param turn      the turn the penalty was given on
+	 */
+	public void add(int id, PenaltyReason reason, int turn)
+	{
+		counts[id][reason.ordinal()]++;
+		if (numSampled[id] < sampleSize)
+		{
+			sampleReasons[id][numSampled[id]] = (byte) reason.ordinal();
+			sampleTurns[id][numSampled[id]] = turn;
+			numSampled[id]++;
+		}
+	}
+
+	/**
+	 * @param id        a player ID
+	 * @param reason    a reason for a penalty
+	 * @return          the number of times the player was given a penalty for that reason
+	 */
+	public int getCount(int id, PenaltyReason reason)
+	{
+		return counts[id][reason.ordinal()];
+	}
+
+	/**
+	 * Prints how many penalties of each reason a player was given, followed by its first penalties
+	 * @param out   where to print
+	 * @param id    the player ID
+	 */
+	public void print(PrintStream out, int id)
+	{
+		for (PenaltyReason reason : REASONS)
+		{
+			if (counts[id][reason.ordinal()] > 0)
+				out.println("\t" + counts[id][reason.ordinal()] + " x " + reason.getMessage());
+		}
+		for (int n = 0; n < numSampled[id]; n++)
+			out.println("\t\tTurn " + sampleTurns[id][n] + ": " + REASONS[sampleReasons[id][n]].getMessage());
+	}
+}
@@ -0,0 +1,35 @@
+package summative;
+
+/**
+ * The reasons a FighterRobot can be given a penalty, with the message printed for each one
+ */
+public enum PenaltyReason {
+
+	DEAD_TARGET("Penalty: ID requested is already dead."),
+	NO_FIGHT("Penalty: Did not initiate a fight in 5 rounds."),
+	OUT_OF_BOUNDS("Penalty: Requested location is beyond battlefield"),
+	TOO_MANY_MOVES("Penalty: Requested location requires more than maximum number of moves"),
+	NOT_ENOUGH_ENERGY("Penalty: Requested location requires more than available energy"),
+	INVALID_ROUNDS("Penalty: invalid requested number of rounds of fight"),
+	WRONG_LOCATION("Penalty: Moved to the wrong location"),
+	SELF_FIGHT("Penalty: Try to fight yourself"),
+	NO_ENERGY_OR_WRONG_CELL("Penalty: Did not have enough energy to fight or Did not move to the opponent location"),
+	CPU_BUDGET("Penalty: Used more CPU time in one turn than the budget allows"),
+	ALLOCATION_BUDGET("Penalty: Allocated more memory in one turn than the budget allows"),
+	ROBOT_ERROR("Penalty: Could not be created, threw an exception or did not return a TurnRequest");
+
+	private final String message;
+
+	PenaltyReason(String message)
+	{
+		this.message = message;
+	}
+
+	/**
+	 * @return  the message printed for the penalty
+	 */
+	public String getMessage()
+	{
+		return message;
+	}
+}
@@ -0,0 +1,225 @@
+package summative;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimate of the distribution of a number (a KLL sketch).  Values are kept in levels where an item on level
+ * h stands for 2^h values: when the levels hold more than their capacity, the fullest low level is sorted and every
+ * other item is promoted to the next level.  The sketch keeps O(k log(n / k)) items however many values are added, its
+ * quantiles are off by about 1.7 / k of the ranks, and two sketches can be merged so every worker can keep its own.
+ * Compaction alternates which half is kept instead of flipping a coin, so the same values added in the same order always
+ * give the same sketch.  Not thread safe.
+ */
+public class QuantileSketch {
+
+	public static final int DEFAULT_K = 200;
+	private static final int MIN_CAPACITY = 8;   // smallest number of items a level may hold before it is compacted
+
+	private final int k;
+	private double[][] levels = new double[1][];   // items of each level, the items on level h stand for 2^h values each
+	private int[] sizes = new int[1];              // number of items used in each level
+	private boolean[] keepOdd = new boolean[1];    // which half each level kept the last time it was compacted
+	private long count = 0;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+
+	/**
+	 * Creates an empty sketch with the default accuracy
+	 */
+	public QuantileSketch()
+	{
+		this(DEFAULT_K);
+	}
+
+	/**
+	 * Creates an empty sketch
+	 * @param k     the number of items kept on the top level, larger is more accurate
+	 */
+	public QuantileSketch(int k)
+	{
+		if (k < MIN_CAPACITY)
+			throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY + ": " + k);
+		this.k = k;
+		levels[0] = new double[k];
+	}
+
+	/**
+	 * Adds a value to the sketch
+	 * @param value     the value
+	 */
+	public void add(double value)
+	{
+		if (count == 0 || value < min)
+			min = value;
+		if (count == 0 || value > max)
+			max = value;
+		count++;
+		append(0, value);
+		compress();
+	}
+
+	/**
+	 * Adds every value of another sketch to this one.  The other sketch is not changed.
+	 * @param other     the sketch to add
+	 */
+	public void merge(QuantileSketch other)
+	{
+		if (other.count == 0)
+			return;
+
+		if (count == 0 || other.min < min)
+			min = other.min;
+		if (count == 0 || other.max > max)
+			max = other.max;
+		count += other.count;
+		for (int h = 0; h < other.levels.length; h++)
+		{
+			for (int i = 0; i < other.sizes[h]; i++)
+				append(h, other.levels[h][i]);
+		}
+		compress();
+	}
+
+	/**
+	 * @param fraction  a fraction from 0 to 1, e.g. 0.9 for the 90th percentile
+	 * @return          an estimate of the value that fraction of the values are no larger than, or NaN if the sketch is empty
+	 */
+	public double quantile(double fraction)
+	{
+		if (count == 0)
+			return Double.NaN;
+		if (fraction <= 0)
+			return min;
+		if (fraction >= 1)
+			return max;
+
+		// sort every item with its weight, then walk up to the wanted rank
+		int numItems = 0;
+		for (int h = 0; h < levels.length; h++)
+			numItems += sizes[h];
+		double[] values = new double[numItems];
+		long[] weights = new long[numItems];
+		Integer[] order = new Integer[numItems];
+		int n = 0;
+		for (int h = 0; h < levels.length; h++)
+		{
+			for (int i = 0; i < sizes[h]; i++)
+			{
+				values[n] = levels[h][i];
+				weights[n] = 1L << h;
+				order[n] = n;
+				n++;
+			}
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+		long totalWeight = 0;
+		for (long weight : weights)
+			totalWeight += weight;
+		double rank = fraction * totalWeight;
+		long seen = 0;
+		for (int i = 0; i < numItems; i++)
+		{
+			seen += weights[order[i]];
+			if (seen >= rank)
+				return values[order[i]];
+		}
+		return max;
+	}
+
+	/**
+	 * @return  the number of values added
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * @return  the smallest value added, or NaN if the sketch is empty
+	 */
+	public double getMin()
+	{
+		return min;
+	}
+
+	/**
+	 * @return  the largest value added, or NaN if the sketch is empty
+	 */
+	public double getMax()
+	{
+		return max;
+	}
+
+	/**
+	 * Helper method used to add an item to a level, adding the level if the sketch does not have it yet
+	 */
+	private void append(int h, double value)
+	{
+		if (h == levels.length)
+		{
+			levels = Arrays.copyOf(levels, h + 1);
+			sizes = Arrays.copyOf(sizes, h + 1);
+			keepOdd = Arrays.copyOf(keepOdd, h + 1);
+			levels[h] = new double[capacity(h)];
+		}
+		if (sizes[h] == levels[h].length)
+			levels[h] = Arrays.copyOf(levels[h], Math.max(MIN_CAPACITY, sizes[h] * 2));
+		levels[h][sizes[h]] = value;
+		sizes[h]++;
+	}
+
+	/**
+	 * Helper method used to compact levels until the sketch is back within its capacity
+	 */
+	private void compress()
+	{
+		while (true)
+		{
+			int numItems = 0;
+			int totalCapacity = 0;
+			for (int h = 0; h < levels.length; h++)
+			{
+				numItems += sizes[h];
+				totalCapacity += capacity(h);
+			}
+			if (numItems <= totalCapacity)
+				return;
+
+			// the lowest level that is over its own capacity, there always is one when the sketch is over the total
+			int h = 0;
+			while (sizes[h] < capacity(h))
+				h++;
+			compact(h);
+		}
+	}
+
+	/**
+	 * Helper method used to sort a level and promote every other item of it to the next level
+	 */
+	private void compact(int h)
+	{
+		double[] items = levels[h];
+		int size = sizes[h];
+		Arrays.sort(items, 0, size);
+
+		// with an odd number of items the largest one stays behind so the total weight does not change
+		int paired = size - size % 2;
+		int start = keepOdd[h] ? 1 : 0;
+		keepOdd[h] = !keepOdd[h];
+		for (int i = start; i < paired; i += 2)
+			append(h + 1, items[i]);
+		if (paired < size)
+			items[0] = items[paired];
+		sizes[h] = size - paired;
+	}
+
+	/**
+	 * Helper method used to find how many items a level may hold, lower levels hold fewer (2/3 as many per level)
+	 */
+	private int capacity(int h)
+	{
+		int depth = levels.length - 1 - h;
+		return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+	}
+}
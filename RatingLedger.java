@@ -0,0 +1,358 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Keeps an Elo rating for every type of robot that is updated as each battle finishes.  A battle with several players
+ * counts as a game between every pair of them, won by whichever one stayed in play longer.  Players still in play when
+ * a battle is stopped at BattleManagerTest11.MAX_TURNS survived equally long, so they draw with each other.
+ *
+ * Every result is added to the end of a log file, and the ratings are kept in memory so looking one up never reads the
+ * file.  Every COMPACT_EVERY results the ratings are written to a snapshot file and the log is started again, so
+ * loading the ledger only has to read the snapshot and the results since then.
+ */
+public class RatingLedger {
+
+	public static final double START_RATING = 1500;
+	private static final double K_FACTOR = 32;
+	private static final int COMPACT_EVERY = 10000;
+	private static final int CHUNK_SIZE = 256;   // battles run before their results are recorded, so ratings stay current in a big run
+
+	private final File snapshotFile;
+	private final File logFile;
+	private final Map<String, Rating> ratings = new HashMap<String, Rating>();
+	private long numResults = 0;          // results added since the ledger was created, each log line starts with its number
+	private long snapshotResults = 0;     // results already counted in the snapshot file
+	private PrintWriter log = null;
+
+	/**
+	 * Rating of one type of robot
+	 */
+	public static class Rating {
+
+		private double rating = START_RATING;
+		private long games = 0;
+
+		/**
+		 * @return  the Elo rating
+		 */
+		public double getRating()
+		{
+			return rating;
+		}
+
+		/**
+		 * @return  the number of battles the rating is based on
+		 */
+		public long getGames()
+		{
+			return games;
+		}
+	}
+
+	/**
+	 * Main method that plays battles between random rosters of the built in robots and prints the ratings.  The battles
+	 * are run CHUNK_SIZE at a time and each chunk is recorded before the next one starts.
+	 * @param args  the ledger's file name without extension, then optionally the number of battles (default 1000), the
+	 *              number of worker threads and the seed (default random)
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int numBattles = 1000;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		long seed = new Random().nextLong();
+		if (args.length > 1)
+			numBattles = Integer.parseInt(args[1]);
+		if (args.length > 2)
+			numThreads = Integer.parseInt(args[2]);
+		if (args.length > 3)
+			seed = Long.parseLong(args[3]);
+
+		City.showFrame(false);
+
+		final RobotType[] types = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED, RobotType.RAHMAN_V4};
+		final long battleSeed = seed;
+		RatingLedger ledger = new RatingLedger(new File(args[0] + ".ratings"), new File(args[0] + ".log"));
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			for (int first = 0; first < numBattles; first += CHUNK_SIZE)
+			{
+				final int chunkStart = first;
+				int chunkSize = Math.min(CHUNK_SIZE, numBattles - first);
+				List<BattleOutcome> outcomes = tournament.runBatch(chunkSize, new BattleTask<BattleOutcome>() {
+					public BattleOutcome run(int index)
+					{
+						Random generator = new Random(Seeds.derive(battleSeed, chunkStart + index));
+						RobotType[] roster = new RobotType[BattleManagerTest11.NUM_PLAYERS];
+						for (int i = 0; i < roster.length; i++)
+							roster[i] = types[generator.nextInt(types.length)];
+
+						BattleManagerTest11 battle = new BattleManagerTest11(roster, generator.nextLong(), false, RobotPool.forCurrentThread());
+						battle.runBattle();
+						return new BattleOutcome(battle);
+					}
+				});
+				// Elo depends on the order of the results, so each chunk is added in battle order rather than as they finish
+				for (BattleOutcome outcome : outcomes)
+					ledger.record(outcome);
+			}
+		}
+		finally
+		{
+			tournament.shutdown();
+			ledger.close();
+		}
+		ledger.print();
+	}
+
+	/**
+	 * Loads the ledger from its files, which are created if they do not exist yet
+	 * @param snapshotFile  file the ratings are written to when the log is compacted
+	 * @param logFile       file every result is added to
+	 */
+	public RatingLedger(File snapshotFile, File logFile) throws IOException
+	{
+		this.snapshotFile = snapshotFile;
+		this.logFile = logFile;
+
+		if (snapshotFile.exists())
+			readSnapshot();
+		if (logFile.exists())
+			replayLog();
+		// start from a clean log, in case its last line was cut short
+		compact();
+	}
+
+	/**
+	 * Adds the result of a finished battle
+	 * @param outcome   the battle's outcome
+	 */
+	public void record(BattleOutcome outcome)
+	{
+		String[] names = new String[BattleManagerTest11.NUM_PLAYERS];
+		int[] turnsSurvived = new int[BattleManagerTest11.NUM_PLAYERS];
+		for (int id = 0; id < names.length; id++)
+		{
+			names[id] = outcome.getName(id);
+			turnsSurvived[id] = outcome.getTurnsSurvived(id);
+		}
+		record(names, turnsSurvived);
+	}
+
+	/**
+	 * Adds the result of a battle
+	 * @param names             the name of the robot type of each player
+	 * @param turnsSurvived     how long each player stayed in play, the longer the better
+	 */
+	public synchronized void record(String[] names, int[] turnsSurvived)
+	{
+		numResults++;
+		StringBuilder line = new StringBuilder();
+		line.append(numResults);
+		for (int i = 0; i < names.length; i++)
+			line.append('\t').append(names[i]).append('=').append(turnsSurvived[i]);
+		line.append(';');
+		log.println(line);
+
+		apply(names, turnsSurvived);
+
+		if (numResults - snapshotResults >= COMPACT_EVERY)
+			compact();
+	}
+
+	/**
+	 * @param name  the name of a type of robot
+	 * @return      its rating, or null if it has not played yet
+	 */
+	public synchronized Rating getRating(String name)
+	{
+		return ratings.get(name);
+	}
+
+	/**
+	 * Writes the current ratings to the snapshot file and starts the log again
+	 */
+	public synchronized void compact()
+	{
+		try
+		{
+			if (log != null)
+				log.close();
+
+			// write to a new file first and move it over the old one in one step, so there is always a whole snapshot
+			File newSnapshot = new File(snapshotFile.getPath() + ".tmp");
+			PrintWriter out = new PrintWriter(new FileWriter(newSnapshot));
+			out.println(numResults);
+			for (Map.Entry<String, Rating> entry : ratings.entrySet())
+				out.println(entry.getKey() + "\t" + entry.getValue().rating + "\t" + entry.getValue().games);
+			// PrintWriter hides write errors, and the log must not be emptied if the snapshot is incomplete
+			boolean failed = out.checkError();
+			out.close();
+			if (failed)
+				throw new IOException("Could not write " + newSnapshot);
+			Files.move(newSnapshot.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			snapshotResults = numResults;
+
+			// the log lines are numbered, so any that survive an interruption here are skipped when loading
+			log = new PrintWriter(new BufferedWriter(new FileWriter(logFile, false)));
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException("Could not compact the rating ledger", e);
+		}
+	}
+
+	/**
+	 * Writes any results still buffered to the log and closes it
+	 */
+	public synchronized void close()
+	{
+		log.close();
+	}
+
+	/**
+	 * Prints the ratings from best to worst
+	 */
+	public synchronized void print()
+	{
+		List<Map.Entry<String, Rating>> sorted = new ArrayList<Map.Entry<String, Rating>>(ratings.entrySet());
+		sorted.sort((a, b) -> Double.compare(b.getValue().rating, a.getValue().rating));
+		System.out.format("%-25s%10s%10s%n", "Robot", "Rating", "Battles");
+		for (Map.Entry<String, Rating> entry : sorted)
+			System.out.format("%-25s%10.1f%10d%n", entry.getKey(), entry.getValue().rating, entry.getValue().games);
+	}
+
+	/**
+	 * Helper method used to update the ratings of every player in a battle, treating it as a game between each pair
+	 */
+	private void apply(String[] names, int[] turnsSurvived)
+	{
+		int n = names.length;
+		Rating[] players = new Rating[n];
+		double[] before = new double[n];
+		for (int i = 0; i < n; i++)
+		{
+			players[i] = ratings.get(names[i]);
+			if (players[i] == null)
+			{
+				players[i] = new Rating();
+				ratings.put(names[i], players[i]);
+			}
+			before[i] = players[i].rating;
+		}
+
+		// the same robot type can fill several seats, each seat counts on its own using the ratings from before the battle
+		for (int i = 0; i < n; i++)
+		{
+			double change = 0;
+			for (int j = 0; j < n; j++)
+			{
+				if (i == j)
+					continue;
+				double expected = 1 / (1 + Math.pow(10, (before[j] - before[i]) / 400));
+				double score = 0.5;
+				if (turnsSurvived[i] > turnsSurvived[j])
+					score = 1;
+				else if (turnsSurvived[i] < turnsSurvived[j])
+					score = 0;
+				change += score - expected;
+			}
+			players[i].rating += K_FACTOR / (n - 1) * change;
+		}
+
+		// a type that filled several seats still only played one more battle
+		for (int i = 0; i < n; i++)
+		{
+			boolean counted = false;
+			for (int j = 0; j < i; j++)
+			{
+				if (players[j] == players[i])
+					counted = true;
+			}
+			if (!counted)
+				players[i].games++;
+		}
+	}
+
+	/**
+	 * Helper method used to load the ratings written by the last compaction
+	 */
+	private void readSnapshot() throws IOException
+	{
+		BufferedReader in = new BufferedReader(new FileReader(snapshotFile));
+		try
+		{
+			snapshotResults = Long.parseLong(in.readLine().trim());
+			numResults = snapshotResults;
+			String line = in.readLine();
+			while (line != null)
+			{
+				String[] parts = line.split("\t");
+				Rating rating = new Rating();
+				rating.rating = Double.parseDouble(parts[1]);
+				rating.games = Long.parseLong(parts[2]);
+				ratings.put(parts[0], rating);
+				line = in.readLine();
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * Helper method used to add the results logged since the last compaction
+	 */
+	private void replayLog() throws IOException
+	{
+		BufferedReader in = new BufferedReader(new FileReader(logFile));
+		try
+		{
+			String line = in.readLine();
+			while (line != null)
+			{
+				// skip a last line cut short by an interruption (it has no ';' at the end) and results already in the snapshot
+				if (line.endsWith(";"))
+				{
+					String[] parts = line.substring(0, line.length() - 1).split("\t");
+					long number = Long.parseLong(parts[0]);
+					if (number > numResults)
+					{
+						String[] names = new String[parts.length - 1];
+						int[] turnsSurvived = new int[parts.length - 1];
+						for (int i = 1; i < parts.length; i++)
+						{
+							int equals = parts[i].indexOf('=');
+							names[i - 1] = parts[i].substring(0, equals);
+							turnsSurvived[i - 1] = Integer.parseInt(parts[i].substring(equals + 1));
+						}
+						apply(names, turnsSurvived);
+						numResults = number;
+					}
+				}
+				line = in.readLine();
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,360 @@
+package summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stands in the arena for a FighterRobot that runs in a separate JVM (see RemoteRobotHost), so an experimental or
+ * untrusted robot can not reach into the engine.  The two processes talk through a pair of SharedRings in a memory
+ * mapped file: everything the engine tells this robot is passed on, and takeTurn() waits for the other process to
+ * answer with its TurnRequest.
+ */
+public class RemoteFighterRobot extends FighterRobot implements AutoCloseable {
+
+	// message types
+	static final int INIT = 1;      // street, avenue, id, health: create the robot
+	static final int HELLO = 2;     // attack, defence, numMoves: the robot was created
+	static final int TURN = 3;      // energy, then id, avenue, street, health of every player
+	static final int REQUEST = 4;   // endAvenue, endStreet, fightID, numRounds, then the cpu time and bytes of the
+	                                // turn as high and low ints: the answer to a TURN
+	static final int RESULT = 5;    // healthLost, oppID, oppHealthLost, numRoundsFought
+	static final int MOVE = 6;      // avenue, street
+	static final int RESET = 7;     // id, health
+	static final int CLOSE = 8;
+
+	static final int NUM_SLOTS = 16;
+	static final int SLOT_INTS = 1 + 4 * BattleManagerTest11.NUM_PLAYERS;
+	static final int RING_SIZE = SharedRing.sizeFor(NUM_SLOTS, SLOT_INTS);
+
+	private static final long START_TIMEOUT = TimeUnit.SECONDS.toNanos(30);   // starting a JVM takes a while
+	private static final long TURN_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+	private final Process process;
+	private final File ringFile;
+	private final SharedRing toRobot;
+	private final SharedRing fromRobot;
+	private final int[] message = new int[SLOT_INTS];
+	private final Thread shutdownHook;   // stops the process if the engine exits without closing this robot
+	private boolean closed = false;
+	private long lastTurnCpuNanos;
+	private long lastTurnAllocatedBytes;
+
+	/**
+	 * Main method that runs a battle with one robot in a process of its own
+	 * @param args  optionally the name of the built in robot to run in its own process (default RahmanFighterRobotV4),
+	 *              or a jar and the full name of the robot's class in it
+	 */
+	public static void main(String[] args)
+	{
+		RobotType remote;
+		if (args.length > 1)
+			remote = type(new File(args[0]), args[1]);
+		else
+			remote = type(args.length > 0 ? args[0] : RobotType.RAHMAN_V4.getName());
+		RobotType[] roster = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED, remote};
+		BattleManagerTest11 battle = new BattleManagerTest11(roster, true);
+		try
+		{
+			battle.runBattle();
+			battle.printStats();
+		}
+		finally
+		{
+			battle.close();
+		}
+	}
+
+	/**
+	 * @param robotName the name of a built in robot type to run in its own process
+	 * @return          a type of robot whose robots each run in a process of their own
+	 */
+	public static RobotType type(final String robotName)
+	{
+		RobotType.forName(robotName);
+		return new RobotType(robotName + "@remote", (c, a, s, d, id, health) -> launch(robotName, c, a, s, d, id, health));
+	}
+
+	/**
+	 * @param jar       the jar file the robot is in, which is only opened by the robot's own process
+	 * @param className the full name of the robot's class, loaded in that process by a RobotLoader
+	 * @return          a type of robot whose robots each run in a process of their own
+	 */
+	public static RobotType type(final File jar, final String className)
+	{
+		if (!jar.isFile())
+			throw new IllegalArgumentException("There is no jar " + jar);
+		String name = className.substring(className.lastIndexOf('.') + 1) + "@" + jar.getName() + "@remote";
+		return new RobotType(name, (c, a, s, d, id, health) -> launch(jar, className, c, a, s, d, id, health));
+	}
+
+	/**
+	 * Starts a process running a built in robot and creates the robot that stands in for it in this arena
+	 * @param robotName the name of a built in robot type
+	 * @param c         City to spawn in
+	 * @param a         Street to spawn in
+	 * @param s         Avenue to spawn in
+	 * @param d         Direction to spawn in
+	 * @param id        Robot's ID number
+	 * @param health    Health to spawn the robot at
+	 * @return          the robot
+	 */
+	public static RemoteFighterRobot launch(String robotName, City c, int a, int s, Direction d, int id, int health)
+	{
+		return launch(robotName, new String[] {robotName}, c, a, s, d, id, health);
+	}
+
+	/**
+	 * Starts a process running a robot loaded from a jar and creates the robot that stands in for it in this arena
+	 * @param jar       the jar file the robot is in
+	 * @param className the full name of the robot's class
+	 * @param c         City to spawn in
+	 * @param a         Street to spawn in
+	 * @param s         Avenue to spawn in
+	 * @param d         Direction to spawn in
+	 * @param id        Robot's ID number
+	 * @param health    Health to spawn the robot at
+	 * @return          the robot
+	 */
+	public static RemoteFighterRobot launch(File jar, String className, City c, int a, int s, Direction d, int id, int health)
+	{
+		return launch(className + " in " + jar, new String[] {jar.getAbsolutePath(), className}, c, a, s, d, id, health);
+	}
+
+	/**
+	 * Helper method used to start a RemoteRobotHost and create the robot that stands in for it
+	 * @param robotName the robot's name for error messages
+	 * @param robotArgs the arguments that tell the host which robot to run, after the shared file
+	 */
+	private static RemoteFighterRobot launch(String robotName, String[] robotArgs, City c, int a, int s, Direction d, int id, int health)
+	{
+		File ringFile = null;
+		Process process = null;
+		try
+		{
+			// on POSIX systems a new temp file can only be read and written by its owner, so other users can not
+			// listen in on the robot or send it messages
+			ringFile = Files.createTempFile("fighter", ".ring").toFile();
+			ringFile.deleteOnExit();
+			MappedByteBuffer buffer;
+			RandomAccessFile file = new RandomAccessFile(ringFile, "rw");
+			try
+			{
+				buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 2 * RING_SIZE);
+			}
+			finally
+			{
+				file.close();
+			}
+			SharedRing toRobot = new SharedRing(buffer, 0, NUM_SLOTS, SLOT_INTS);
+			SharedRing fromRobot = new SharedRing(buffer, RING_SIZE, NUM_SLOTS, SLOT_INTS);
+			toRobot.openForWriting();
+			fromRobot.openForReading();
+
+			String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+			List<String> command = new ArrayList<String>();
+			Collections.addAll(command, java, "-cp", System.getProperty("java.class.path"), RemoteRobotHost.class.getName(), ringFile.getPath());
+			Collections.addAll(command, robotArgs);
+			process = new ProcessBuilder(command).inheritIO().start();
+
+			int[] message = new int[SLOT_INTS];
+			message[0] = a;
+			message[1] = s;
+			message[2] = id;
+			message[3] = health;
+			toRobot.send(INIT, message, 4, START_TIMEOUT);
+			if (fromRobot.receive(message, START_TIMEOUT) != HELLO)
+				throw new IllegalStateException("Robot process for " + robotName + " did not start properly");
+			return new RemoteFighterRobot(c, a, s, d, id, message[0], message[1], message[2], process, ringFile, toRobot, fromRobot);
+		}
+		catch (IOException | TimeoutException e)
+		{
+			if (process != null)
+				process.destroyForcibly();
+			if (ringFile != null)
+				ringFile.delete();
+			throw new IllegalStateException("Could not start a robot process for " + robotName, e);
+		}
+	}
+
+	private RemoteFighterRobot(City c, int a, int s, Direction d, int id, int attack, int defence, int numMoves,
+			Process process, File ringFile, SharedRing toRobot, SharedRing fromRobot)
+	{
+		super(c, a, s, d, id, attack, defence, numMoves);
+		this.process = process;
+		this.ringFile = ringFile;
+		this.toRobot = toRobot;
+		this.fromRobot = fromRobot;
+
+		// do not leave robot processes behind if the engine stops without closing them
+		shutdownHook = new Thread(process::destroyForcibly);
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+	/**
+	 * Moves this robot, and tells the other process so its robot knows where it is
+	 * @param a     end Avenue
+	 * @param s     end Street
+	 */
+	public void goToLocation(int a, int s)
+	{
+		int streetDiff = s - this.getStreet();
+		int avenueDiff = a - this.getAvenue();
+		if (streetDiff != 0)
+		{
+			face(streetDiff < 0 ? Direction.NORTH : Direction.SOUTH);
+			this.move(Math.abs(streetDiff));
+		}
+		if (avenueDiff != 0)
+		{
+			face(avenueDiff < 0 ? Direction.WEST : Direction.EAST);
+			this.move(Math.abs(avenueDiff));
+		}
+
+		message[0] = a;
+		message[1] = s;
+		send(MOVE, 2);
+	}
+
+	/**
+	 * Sends the turn to the other process and waits for its answer
+	 * @param energy    how much energy the robot has
+	 * @param data      the data about each player
+	 * @return          the robot's TurnRequest
+	 */
+	public TurnRequest takeTurn(int energy, OppData[] data)
+	{
+		message[0] = energy;
+		for (int i = 0; i < data.length; i++)
+		{
+			message[1 + 4 * i] = data[i].getID();
+			message[2 + 4 * i] = data[i].getAvenue();
+			message[3 + 4 * i] = data[i].getStreet();
+			message[4 + 4 * i] = data[i].getHealth();
+		}
+		send(TURN, 1 + 4 * data.length);
+
+		try
+		{
+			if (fromRobot.receive(message, TURN_TIMEOUT) != REQUEST)
+				throw new IllegalStateException("Robot process " + getID() + " answered a turn with something else");
+		}
+		catch (TimeoutException e)
+		{
+			throw new IllegalStateException("Robot process " + getID() + " did not answer its turn", e);
+		}
+		lastTurnCpuNanos = ((long) message[4] << 32) | (message[5] & 0xFFFFFFFFL);
+		lastTurnAllocatedBytes = ((long) message[6] << 32) | (message[7] & 0xFFFFFFFFL);
+		return new TurnRequest(message[0], message[1], message[2], message[3]);
+	}
+
+	/**
+	 * Returns the CPU time the last takeTurn() used in the other process, as measured by that process
+	 * @return  the CPU time in nanoseconds
+	 */
+	public long getLastTurnCpuNanos()
+	{
+		return lastTurnCpuNanos;
+	}
+
+	/**
+	 * Returns the number of bytes the last takeTurn() allocated in the other process, as measured by that process
+	 * @return  the number of bytes
+	 */
+	public long getLastTurnAllocatedBytes()
+	{
+		return lastTurnAllocatedBytes;
+	}
+
+	/**
+	 * Passes the result of a fight on to the other process
+	 */
+	public void battleResult(int healthLost, int oppID, int oppHealthLost, int numRoundsFought)
+	{
+		message[0] = healthLost;
+		message[1] = oppID;
+		message[2] = oppHealthLost;
+		message[3] = numRoundsFought;
+		send(RESULT, 4);
+	}
+
+	/**
+	 * Has the other process reset its robot too, after reset() has moved this one
+	 */
+	protected void resetState(int health)
+	{
+		message[0] = getID();
+		message[1] = health;
+		send(RESET, 2);
+	}
+
+	/**
+	 * Stops the other process and deletes the file the two processes shared.  Nothing happens if it was already closed.
+	 */
+	public void close()
+	{
+		if (closed)
+			return;
+		closed = true;
+
+		try
+		{
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		}
+		catch (IllegalStateException e)
+		{
+			// the JVM is already exiting, and the hook will stop the process anyway
+		}
+		try
+		{
+			send(CLOSE, 0);
+			if (!process.waitFor(1, TimeUnit.SECONDS))
+				process.destroyForcibly();
+		}
+		catch (InterruptedException e)
+		{
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+		catch (IllegalStateException e)
+		{
+			process.destroyForcibly();
+		}
+		ringFile.delete();
+	}
+
+	/**
+	 * Helper method used to send a message that needs no answer
+	 */
+	private void send(int type, int count)
+	{
+		try
+		{
+			toRobot.send(type, message, count, TURN_TIMEOUT);
+		}
+		catch (TimeoutException e)
+		{
+			throw new IllegalStateException("Robot process " + getID() + " stopped reading its messages", e);
+		}
+	}
+
+	/**
+	 * Helper method used to turn to a direction
+	 */
+	private void face(Direction direction)
+	{
+		while (this.getDirection() != direction)
+			this.turnLeft();
+	}
+}
@@ -0,0 +1,98 @@
+package summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The process side of a RemoteFighterRobot: runs one robot in an arena of its own and answers the engine's messages
+ * from the shared file.  Started by RemoteFighterRobot.launch(), not by hand.
+ */
+public class RemoteRobotHost {
+
+	// an idle robot waits as long as it has to, the engine stops it with CLOSE or by ending the process
+	private static final long IDLE_TIMEOUT = TimeUnit.DAYS.toNanos(1);
+
+	/**
+	 * Main method that runs a robot until the engine closes it
+	 * @param args  the shared file, then the name of the built in robot type to run or a jar and the full name of the
+	 *              robot's class in it
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		File ringFile = new File(args[0]);
+		RobotType type;
+		if (args.length > 2)
+			type = new RobotLoader().load(new File(args[1]), args[2]);
+		else
+			type = RobotType.forName(args[1]);
+
+		MappedByteBuffer buffer;
+		RandomAccessFile file = new RandomAccessFile(ringFile, "rw");
+		try
+		{
+			buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 2 * RemoteFighterRobot.RING_SIZE);
+		}
+		finally
+		{
+			file.close();
+		}
+		SharedRing fromEngine = new SharedRing(buffer, 0, RemoteFighterRobot.NUM_SLOTS, RemoteFighterRobot.SLOT_INTS);
+		SharedRing toEngine = new SharedRing(buffer, RemoteFighterRobot.RING_SIZE, RemoteFighterRobot.NUM_SLOTS, RemoteFighterRobot.SLOT_INTS);
+		fromEngine.openForReading();
+		toEngine.openForWriting();
+
+		City.showFrame(false);
+		City arena = new City(BattleManagerTest11.HEIGHT, BattleManagerTest11.WIDTH);
+		BattleManagerTest11.buildWalls(arena);
+
+		int[] message = new int[RemoteFighterRobot.SLOT_INTS];
+		if (fromEngine.receive(message, IDLE_TIMEOUT) != RemoteFighterRobot.INIT)
+			throw new IllegalStateException("The engine did not start with INIT");
+		FighterRobot robot = type.create(arena, message[0], message[1], Direction.NORTH, message[2], message[3]);
+		message[0] = robot.getAttack();
+		message[1] = robot.getDefence();
+		message[2] = robot.getNumMoves();
+		toEngine.send(RemoteFighterRobot.HELLO, message, 3, IDLE_TIMEOUT);
+
+		OppData[] data = new OppData[BattleManagerTest11.NUM_PLAYERS];
+		while (true)
+		{
+			int messageType = fromEngine.receive(message, IDLE_TIMEOUT);
+			if (messageType == RemoteFighterRobot.TURN)
+			{
+				for (int i = 0; i < data.length; i++)
+					data[i] = new OppData(message[1 + 4 * i], message[2 + 4 * i], message[3 + 4 * i], message[4 + 4 * i]);
+				// the decision is metered here, the engine's own thread only waits for the answer
+				long cpuBefore = ResourceMeter.cpuTime();
+				long bytesBefore = ResourceMeter.allocatedBytes();
+				TurnRequest request = robot.takeTurn(message[0], data);
+				long turnCpu = ResourceMeter.cpuTime() - cpuBefore;
+				long turnBytes = ResourceMeter.allocatedBytes() - bytesBefore;
+				message[0] = request.getEndAvenue();
+				message[1] = request.getEndStreet();
+				message[2] = request.getFightID();
+				message[3] = request.getNumRounds();
+				message[4] = (int) (turnCpu >>> 32);
+				message[5] = (int) turnCpu;
+				message[6] = (int) (turnBytes >>> 32);
+				message[7] = (int) turnBytes;
+				toEngine.send(RemoteFighterRobot.REQUEST, message, 8, IDLE_TIMEOUT);
+			}
+			else if (messageType == RemoteFighterRobot.RESULT)
+				robot.battleResult(message[0], message[1], message[2], message[3]);
+			else if (messageType == RemoteFighterRobot.MOVE)
+				robot.goToLocation(message[0], message[1]);
+			else if (messageType == RemoteFighterRobot.RESET)
+				robot.reset(robot.getAvenue(), robot.getStreet(), message[0], message[1]);
+			else if (messageType == RemoteFighterRobot.CLOSE)
+				break;
+		}
+		System.exit(0);
+	}
+}
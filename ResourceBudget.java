@@ -0,0 +1,47 @@
+package summative;
+
+/**
+ * The most CPU time and memory a robot may use for one decision.  A robot that goes over either one in a turn is given
+ * a penalty for it.
+ */
+public class ResourceBudget {
+
+	// measures every decision without ever giving a penalty
+	public static final ResourceBudget UNLIMITED = new ResourceBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+	private final long maxCpuNanos;
+	private final long maxAllocatedBytes;
+
+	/**
+	 * @param maxCpuNanos           the most CPU time one takeTurn() may use, in nanoseconds
+	 * @param maxAllocatedBytes     the most bytes one takeTurn() may allocate
+	 */
+	public ResourceBudget(long maxCpuNanos, long maxAllocatedBytes)
+	{
+		this.maxCpuNanos = maxCpuNanos;
+		this.maxAllocatedBytes = maxAllocatedBytes;
+	}
+
+	/**
+	 * @return  the most CPU time one takeTurn() may use, in nanoseconds
+	 */
+	public long getMaxCpuNanos()
+	{
+		return maxCpuNanos;
+	}
+
+	/**
+	 * @return  the most bytes one takeTurn() may allocate
+	 */
+	public long getMaxAllocatedBytes()
+	{
+		return maxAllocatedBytes;
+	}
+
+	public String toString()
+	{
+		if (this == UNLIMITED)
+			return "unlimited";
+		return maxCpuNanos / 1000 + " us CPU, " + maxAllocatedBytes + " bytes per turn";
+	}
+}
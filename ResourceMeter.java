@@ -0,0 +1,74 @@
+package summative;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads how much CPU time the current thread has used and how many bytes it has allocated, from the JVM's per thread
+ * counters.  A robot's takeTurn() runs on the thread of its battle, so the difference in the counters before and after
+ * the call is what the decision cost.  Counters the JVM does not support read as 0.
+ */
+public class ResourceMeter {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+	private static final com.sun.management.ThreadMXBean HOTSPOT_THREADS;
+	private static final boolean CPU_SUPPORTED;
+	private static final boolean ALLOCATION_SUPPORTED;
+
+	static
+	{
+		CPU_SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported();
+		if (CPU_SUPPORTED && !THREADS.isThreadCpuTimeEnabled())
+			THREADS.setThreadCpuTimeEnabled(true);
+
+		// allocation counters are only in the HotSpot version of the bean
+		if (THREADS instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported())
+		{
+			HOTSPOT_THREADS = (com.sun.management.ThreadMXBean) THREADS;
+			if (!HOTSPOT_THREADS.isThreadAllocatedMemoryEnabled())
+				HOTSPOT_THREADS.setThreadAllocatedMemoryEnabled(true);
+			ALLOCATION_SUPPORTED = true;
+		}
+		else
+		{
+			HOTSPOT_THREADS = null;
+			ALLOCATION_SUPPORTED = false;
+		}
+	}
+
+	private ResourceMeter()
+	{
+	}
+
+	/**
+	 * @return  the CPU time used by the current thread so far in nanoseconds, or 0 if the JVM can not measure it
+	 */
+	public static long cpuTime()
+	{
+		return CPU_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : 0;
+	}
+
+	/**
+	 * @return  the number of bytes allocated by the current thread so far, or 0 if the JVM can not measure it
+	 */
+	public static long allocatedBytes()
+	{
+		return ALLOCATION_SUPPORTED ? HOTSPOT_THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+	}
+
+	/**
+	 * @return  whether cpuTime() measures anything
+	 */
+	public static boolean isCpuTimeSupported()
+	{
+		return CPU_SUPPORTED;
+	}
+
+	/**
+	 * @return  whether allocatedBytes() measures anything
+	 */
+	public static boolean isAllocationSupported()
+	{
+		return ALLOCATION_SUPPORTED;
+	}
+}
@@ -0,0 +1,22 @@
+package summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+
+/**
+ * Creates a FighterRobot.  Matches the constructor every FighterRobot in this project has, so a constructor
+ * reference like FROffensive::new can be used as a factory.
+ */
+public interface RobotFactory {
+
+	/**
+	 * @param c         City to spawn in
+	 * @param a         Street to spawn in (the first location argument of a becker robot)
+	 * @param s         Avenue to spawn in
+	 * @param d         Direction to spawn in
+	 * @param id        Robot's ID number
+	 * @param health    Health to spawn the robot at
+	 * @return          the new robot
+	 */
+	FighterRobot create(City c, int a, int s, Direction d, int id, int health);
+}
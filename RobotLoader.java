@@ -0,0 +1,208 @@
+package summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads FighterRobots written by other people from their own jar files, each jar in a class loader of its own, so
+ * many of them can play in one warm JVM without their classes clashing.  The only classes of this project a loaded
+ * robot can find by name are FighterRobot, OppData and TurnRequest (and the becker library and the JDK), and battles
+ * run their robots with SHARED_LOADER as the context class loader, which finds nothing else either.
+ *
+ * This only keeps robots apart by name, it is not a sandbox: a robot can still get at the engine's class loader
+ * through FighterRobot.class.getClassLoader() or reflection.  A robot that must not be trusted should run in a
+ * process of its own as a RemoteFighterRobot.
+ *
+ * Loaded classes are kept until the jar is unloaded, so loading the same robot for every battle costs nothing after the
+ * first time.  Once a jar is unloaded and none of its robots are left, the garbage collector can free its classes.
+ * Robots kept in RobotPools count, so unload(jar, tournament) also takes them out of the pools of the tournament's
+ * workers.
+ */
+public class RobotLoader {
+
+	// classes of this project that robots are allowed to see
+	private static final String[] SHARED_CLASSES = {
+			FighterRobot.class.getName(), OppData.class.getName(), TurnRequest.class.getName()};
+	private static final String[] SHARED_PACKAGES = {"java.", "javax.", "becker."};
+
+	// finds only the classes robots are allowed to see, the parent of every jar's class loader
+	public static final ClassLoader SHARED_LOADER = new SharedClassesLoader(FighterRobot.class.getClassLoader());
+
+	private final Map<File, URLClassLoader> loaders = new HashMap<File, URLClassLoader>();
+	private final Map<String, RobotType> types = new HashMap<String, RobotType>();   // by jar and class name
+
+	/**
+	 * Main method that loads a robot from a jar and runs a tournament of it against the built in robots
+	 * @param args  the jar, the robot's class name, then optionally the number of battles (default 1000) and the
+	 *              number of worker threads
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int numBattles = 1000;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 2)
+			numBattles = Integer.parseInt(args[2]);
+		if (args.length > 3)
+			numThreads = Integer.parseInt(args[3]);
+
+		City.showFrame(false);
+
+		RobotLoader loader = new RobotLoader();
+		RobotType loaded = loader.load(new File(args[0]), args[1]);
+		Tournament tournament = new Tournament(numThreads);
+		try
+		{
+			RobotType[] roster = {RobotType.OFFENSIVE, RobotType.DEFENSIVE, RobotType.BALANCED, loaded};
+			tournament.run(roster, numBattles).print(System.out);
+		}
+		finally
+		{
+			loader.unload(new File(args[0]), tournament);
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * Loads a robot class from a jar, or gives back the type already loaded for it
+	 * @param jar       the jar file the robot is in
+	 * @param className the full name of the robot's class, which must extend FighterRobot and have the usual
+	 *                  (City, int, int, Direction, int, int) constructor
+	 * @return          a type of robot that creates robots of the loaded class
+	 */
+	public synchronized RobotType load(File jar, String className) throws IOException
+	{
+		File key = jar.getCanonicalFile();
+		String typeKey = key.getPath() + "!" + className;
+		RobotType type = types.get(typeKey);
+		if (type != null)
+			return type;
+
+		URLClassLoader loader = loaders.get(key);
+		if (loader == null)
+		{
+			loader = new URLClassLoader(new URL[] {key.toURI().toURL()}, SHARED_LOADER);
+			loaders.put(key, loader);
+		}
+
+		final Constructor<? extends FighterRobot> constructor;
+		try
+		{
+			Class<? extends FighterRobot> robotClass = Class.forName(className, true, loader).asSubclass(FighterRobot.class);
+			constructor = robotClass.getConstructor(City.class, int.class, int.class, Direction.class, int.class, int.class);
+		}
+		catch (ClassNotFoundException | NoSuchMethodException | ClassCastException e)
+		{
+			throw new IllegalArgumentException(className + " in " + jar + " is not a FighterRobot with the usual constructor", e);
+		}
+
+		String name = className.substring(className.lastIndexOf('.') + 1) + "@" + key.getName();
+		type = new RobotType(name, (c, a, s, d, id, health) -> {
+			try
+			{
+				return constructor.newInstance(c, a, s, d, id, health);
+			}
+			catch (InvocationTargetException e)
+			{
+				throw new IllegalStateException(name + " could not be created", e.getCause());
+			}
+			catch (ReflectiveOperationException e)
+			{
+				throw new IllegalStateException(name + " could not be created", e);
+			}
+		});
+		types.put(typeKey, type);
+		return type;
+	}
+
+	/**
+	 * Forgets every robot loaded from a jar and closes the jar.  Robots already created keep working, but their classes
+	 * can not load anything new from the jar.
+	 * @param jar   the jar file
+	 * @return      the types of robot that were loaded from the jar, so they can be taken out of any RobotPool
+	 */
+	public synchronized List<RobotType> unload(File jar) throws IOException
+	{
+		List<RobotType> unloaded = new ArrayList<RobotType>();
+		File key = jar.getCanonicalFile();
+		URLClassLoader loader = loaders.remove(key);
+		if (loader == null)
+			return unloaded;
+
+		Iterator<Map.Entry<String, RobotType>> entries = types.entrySet().iterator();
+		while (entries.hasNext())
+		{
+			Map.Entry<String, RobotType> entry = entries.next();
+			if (entry.getKey().startsWith(key.getPath() + "!"))
+			{
+				unloaded.add(entry.getValue());
+				entries.remove();
+			}
+		}
+		loader.close();
+		return unloaded;
+	}
+
+	/**
+	 * Unloads a jar and takes its robots out of the RobotPools of the tournament's workers and of the thread that calls
+	 * this, so nothing is left holding on to its classes.  Must not be called while the tournament is running battles.
+	 * @param jar           the jar file
+	 * @param tournament    the tournament whose workers played the jar's robots
+	 */
+	public void unload(File jar, Tournament tournament) throws IOException, InterruptedException
+	{
+		List<RobotType> unloaded = unload(jar);
+		tournament.removeFromRobotPools(unloaded);
+		for (RobotType type : unloaded)
+			RobotPool.forCurrentThread().remove(type);
+	}
+
+	/**
+	 * The parent of every jar's class loader: passes on the JDK, the becker library and the shared classes of this
+	 * project to the loader this project was loaded by, and hides everything else
+	 */
+	private static class SharedClassesLoader extends ClassLoader {
+
+		private final ClassLoader projectLoader;
+
+		SharedClassesLoader(ClassLoader projectLoader)
+		{
+			// no parent, so nothing is found behind this loader's back
+			super(null);
+			this.projectLoader = projectLoader;
+		}
+
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+		{
+			if (!isShared(name))
+				throw new ClassNotFoundException(name + " can not be used by a loaded robot");
+			return projectLoader.loadClass(name);
+		}
+
+		private static boolean isShared(String name)
+		{
+			for (String className : SHARED_CLASSES)
+			{
+				if (className.equals(name))
+					return true;
+			}
+			for (String prefix : SHARED_PACKAGES)
+			{
+				if (name.startsWith(prefix))
+					return true;
+			}
+			return false;
+		}
+	}
+}
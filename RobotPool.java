@@ -0,0 +1,160 @@
+package summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the arena and robots of one worker thread so they can be used again in its next battle instead of being built
+ * from scratch.  A robot taken from the pool is put back in play with FighterRobot.reset(), so a battle played with
+ * pooled robots plays out exactly like one with new robots.  A pool must only be used by one battle at a time.
+ *
+ * Robots that hold on to something outside of the JVM (any that are AutoCloseable, like a RemoteFighterRobot) are
+ * closed when the pool drops them: when it starts over, or when clear() or remove() is called.
+ */
+public class RobotPool {
+
+	// a search can make a new type of robot for every candidate, so the pool starts over (between battles) when it has seen this many
+	private static final int MAX_TYPES = 64;
+
+	private static final ThreadLocal<RobotPool> THREAD_POOL = new ThreadLocal<RobotPool>() {
+		protected RobotPool initialValue()
+		{
+			return new RobotPool();
+		}
+	};
+
+	private City arena;
+	private final Map<RobotType, List<FighterRobot>> robots = new IdentityHashMap<RobotType, List<FighterRobot>>();
+	private final Map<RobotType, int[]> numUsed = new IdentityHashMap<RobotType, int[]>();   // robots of each type in the current battle
+
+	/**
+	 * @return  the pool of the thread that calls this, made the first time it is asked for
+	 */
+	public static RobotPool forCurrentThread()
+	{
+		return THREAD_POOL.get();
+	}
+
+	/**
+	 * Creates an empty pool with an arena of its own
+	 */
+	public RobotPool()
+	{
+		newArena();
+	}
+
+	/**
+	 * @return  the arena every robot of the pool is in, with its walls already built
+	 */
+	public City getArena()
+	{
+		return arena;
+	}
+
+	/**
+	 * Marks every robot of the pool as free, ready for the next battle.  This is also the only time the pool starts
+	 * over with a new arena, so every robot of a battle is always in the same City.
+	 */
+	public void beginBattle()
+	{
+		if (robots.size() >= MAX_TYPES)
+			newArena();
+		for (int[] used : numUsed.values())
+			used[0] = 0;
+	}
+
+	/**
+	 * Gives out a robot for the current battle, using one left over from an earlier battle if there is a free one
+	 * @param type      the type of robot
+	 * @param avenue    the avenue to spawn on
+	 * @param street    the street to spawn on
+	 * @param id        the robot's ID number
+	 * @param health    the health to spawn the robot at
+	 * @return          the robot, facing north
+	 */
+	public FighterRobot acquire(RobotType type, int avenue, int street, int id, int health)
+	{
+		List<FighterRobot> free = robots.get(type);
+		if (free == null)
+		{
+			free = new ArrayList<FighterRobot>();
+			robots.put(type, free);
+			numUsed.put(type, new int[1]);
+		}
+
+		int[] used = numUsed.get(type);
+		FighterRobot robot;
+		if (used[0] < free.size())
+		{
+			robot = free.get(used[0]);
+			robot.reset(avenue, street, id, health);
+		}
+		else
+		{
+			robot = type.create(arena, street, avenue, Direction.NORTH, id, health);
+			free.add(robot);
+		}
+		used[0]++;
+		return robot;
+	}
+
+	/**
+	 * Closes and drops every robot of the pool and starts again with an empty arena.  Must not be called during a battle.
+	 */
+	public void clear()
+	{
+		newArena();
+	}
+
+	/**
+	 * Closes and drops the robots of one type, so the pool no longer keeps the type (or its classes) alive.  Must not be
+	 * called during a battle that uses the type.
+	 * @param type  the type of robot
+	 */
+	public void remove(RobotType type)
+	{
+		List<FighterRobot> dropped = robots.remove(type);
+		numUsed.remove(type);
+		if (dropped != null)
+			closeAll(dropped);
+	}
+
+	/**
+	 * Helper method used to drop every robot and start again with an empty arena
+	 */
+	private void newArena()
+	{
+		for (List<FighterRobot> dropped : robots.values())
+			closeAll(dropped);
+		arena = new City(BattleManagerTest11.HEIGHT, BattleManagerTest11.WIDTH);
+		BattleManagerTest11.buildWalls(arena);
+		robots.clear();
+		numUsed.clear();
+	}
+
+	/**
+	 * Helper method used to close the robots that are AutoCloseable
+	 */
+	private static void closeAll(List<FighterRobot> dropped)
+	{
+		for (FighterRobot robot : dropped)
+		{
+			if (robot instanceof AutoCloseable)
+			{
+				try
+				{
+					((AutoCloseable) robot).close();
+				}
+				catch (Exception e)
+				{
+					throw new IllegalStateException("Could not close pooled robot " + robot.getID(), e);
+				}
+			}
+		}
+	}
+}
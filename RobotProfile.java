@@ -0,0 +1,92 @@
+package summative;
+
+/**
+ * Everything that makes one kind of StrategyRobot different from another: its stats, the tuning constants of its AI,
+ * its label and whether it prints what it is thinking. Objects of this class never change, so one can be shared by any
+ * number of robots.
+ */
+public class RobotProfile {
+    // the robots that come with the project, quiet so thousands of them can play at once (see withDebug())
+    public static final RobotProfile OFFENSIVE = new RobotProfile("OFF", 5, 1, 4, StrategyParams.DEFAULT, false);
+    public static final RobotProfile DEFENSIVE = new RobotProfile("DEF", 1, 5, 4, StrategyParams.DEFAULT, false);
+    public static final RobotProfile BALANCED = new RobotProfile("BAL", 3, 3, 4, StrategyParams.DEFAULT, false);
+    public static final RobotProfile RAHMAN_V4 = new RobotProfile(null, 3, 3, 4, StrategyParams.DEFAULT, false);
+
+    private final String label;
+    private final int attack;
+    private final int defence;
+    private final int numMoves;
+    private final StrategyParams params;
+    private final boolean debug;
+
+    /**
+     * @param label -- text the robot is labelled with, or null to label it with its HP
+     * @param attack -- the robot's attack stat
+     * @param defence -- the robot's defence stat
+     * @param numMoves -- the robot's numMoves stat
+     * @param params -- tuning constants of the robot's AI
+     * @param debug -- whether the robot prints its records of its opponents and its decisions every turn
+     */
+    public RobotProfile(String label, int attack, int defence, int numMoves, StrategyParams params, boolean debug) {
+        this.label = label;
+        this.attack = attack;
+        this.defence = defence;
+        this.numMoves = numMoves;
+        this.params = params;
+        this.debug = debug;
+    }
+
+    /**
+     * @param attack -- the new attack stat
+     * @param defence -- the new defence stat
+     * @param numMoves -- the new numMoves stat
+     * @return -- a copy of this profile with different stats
+     */
+    public RobotProfile withStats(int attack, int defence, int numMoves) {
+        return new RobotProfile(label, attack, defence, numMoves, params, debug);
+    }
+
+    /**
+     * @param params -- the new tuning constants
+     * @return -- a copy of this profile with different tuning constants
+     */
+    public RobotProfile withParams(StrategyParams params) {
+        return new RobotProfile(label, attack, defence, numMoves, params, debug);
+    }
+
+    /**
+     * @param debug -- whether the robot prints its records of its opponents and its decisions every turn
+     * @return -- a copy of this profile that does or does not print
+     */
+    public RobotProfile withDebug(boolean debug) {
+        return new RobotProfile(label, attack, defence, numMoves, params, debug);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getAttack() {
+        return attack;
+    }
+
+    public int getDefence() {
+        return defence;
+    }
+
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    public StrategyParams getParams() {
+        return params;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public String toString() {
+        return (label == null ? "HP" : label) + " " + attack + "/" + defence + "/" + numMoves + " " + params;
+    }
+}
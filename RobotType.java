@@ -0,0 +1,85 @@
+package summative;
+
+import becker.robots.City;
+import becker.robots.Direction;
+
+/**
+ * A kind of FighterRobot that can be put in a battle's roster.  The name is what the robot is reported as in
+ * tournament statistics.
+ */
+public class RobotType {
+
+	// the built in robots are all made as StrategyRobots, so the engine only ever calls one class's takeTurn()
+	public static final RobotType OFFENSIVE = new RobotType("FROffensive", RobotProfile.OFFENSIVE);
+	public static final RobotType DEFENSIVE = new RobotType("FRDefensive", RobotProfile.DEFENSIVE);
+	public static final RobotType BALANCED = new RobotType("FRBalanced", RobotProfile.BALANCED);
+	public static final RobotType RAHMAN_V4 = new RobotType("RahmanFighterRobotV4", RobotProfile.RAHMAN_V4);
+
+	private static final RobotType[] BUILT_IN = {OFFENSIVE, DEFENSIVE, BALANCED, RAHMAN_V4};
+
+	private final String name;
+	private final RobotFactory factory;
+
+	/**
+	 * @param name      the name the robot is reported as
+	 * @param factory   creates the robots of this type
+	 */
+	public RobotType(String name, RobotFactory factory)
+	{
+		this.name = name;
+		this.factory = factory;
+	}
+
+	/**
+	 * Creates a type of StrategyRobot
+	 * @param name      the name the robot is reported as
+	 * @param profile   the profile every robot of this type plays with
+	 */
+	public RobotType(String name, final RobotProfile profile)
+	{
+		this(name, (c, a, s, d, id, health) -> new StrategyRobot(c, a, s, d, id, health, profile));
+	}
+
+	/**
+	 * @return  the name the robot is reported as
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Creates a robot of this type
+	 * @param c         City to spawn in
+	 * @param a         Street to spawn in
+	 * @param s         Avenue to spawn in
+	 * @param d         Direction to spawn in
+	 * @param id        Robot's ID number
+	 * @param health    Health to spawn the robot at
+	 * @return          the new robot
+	 */
+	public FighterRobot create(City c, int a, int s, Direction d, int id, int health)
+	{
+		return factory.create(c, a, s, d, id, health);
+	}
+
+	/**
+	 * Finds one of the robot types that come with the project by its name
+	 * @param name  the name of the robot type, for example FROffensive
+	 * @return      the robot type
+	 */
+	public static RobotType forName(String name)
+	{
+		for (RobotType type : BUILT_IN)
+		{
+			if (type.name.equals(name))
+				return type;
+		}
+		throw new IllegalArgumentException("Unknown robot type: " + name);
+	}
+
+	public String toString()
+	{
+		return name;
+	}
+}
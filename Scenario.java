@@ -0,0 +1,237 @@
+package summative;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * A hand written starting position for a battle, so a particular situation can be benchmarked or tested again and
+ * again instead of waiting for random spawning to come up with it.  Scenarios are written one line per fact, and
+ * anything after a # is a comment:
+ * <pre>
+ *   name cornered
+ *   arena 20 12                                   (avenues and streets, must match the engine)
+ *   robot 0 RahmanFighterRobotV4 0 0 60 10        (id, type, avenue, street, health, energy)
+ *   robot 1 FROffensive 1 0 100 100
+ *   fight 0 1 2 3                                 (id, opponent id, fights won, fights lost)
+ *   decide 0                                      (the player whose first decision is benchmarked, default 0)
+ * </pre>
+ * Every player needs a robot line.  Players that are left out of fight lines have no history.
+ */
+public class Scenario {
+
+	private String name = "scenario";
+	private int decider = 0;
+	private int decideLine = 0;   // the line the decider was chosen on, 0 if it was left at the default
+	private final RobotType[] roster = new RobotType[BattleManagerTest11.NUM_PLAYERS];
+	private final int[][] spawn = new int[BattleManagerTest11.NUM_PLAYERS][];   // avenue, street, health, energy of each player
+	private final int[][] fightsWon = new int[BattleManagerTest11.NUM_PLAYERS][BattleManagerTest11.NUM_PLAYERS];
+	private final int[][] fightsLost = new int[BattleManagerTest11.NUM_PLAYERS][BattleManagerTest11.NUM_PLAYERS];
+
+	private Scenario()
+	{
+	}
+
+	/**
+	 * Reads a scenario from a file
+	 * @param file  the file
+	 * @return      the scenario, named after the file unless it has a name line
+	 */
+	public static Scenario read(File file) throws IOException
+	{
+		Reader in = new FileReader(file);
+		try
+		{
+			String fileName = file.getName();
+			int dot = fileName.lastIndexOf('.');
+			return read(in, dot > 0 ? fileName.substring(0, dot) : fileName);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a scenario from text
+	 * @param text  the lines of the scenario
+	 * @return      the scenario
+	 */
+	public static Scenario parse(String text)
+	{
+		try
+		{
+			return read(new StringReader(text), "scenario");
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Helper method used to read the lines of a scenario
+	 */
+	private static Scenario read(Reader reader, String defaultName) throws IOException
+	{
+		Scenario scenario = new Scenario();
+		scenario.name = defaultName;
+		BufferedReader in = new BufferedReader(reader);
+		int lineNumber = 0;
+		String line = in.readLine();
+		while (line != null)
+		{
+			lineNumber++;
+			int comment = line.indexOf('#');
+			if (comment >= 0)
+				line = line.substring(0, comment);
+			line = line.trim();
+			if (!line.isEmpty())
+			{
+				try
+				{
+					scenario.parseLine(line.split("\\s+"), lineNumber);
+				}
+				catch (RuntimeException e)
+				{
+					throw new IllegalArgumentException("Line " + lineNumber + " of scenario " + defaultName + ": " + e.getMessage(), e);
+				}
+			}
+			line = in.readLine();
+		}
+
+		for (int id = 0; id < scenario.roster.length; id++)
+		{
+			if (scenario.roster[id] == null)
+				throw new IllegalArgumentException("Scenario " + scenario.name + " has no robot for player " + id);
+		}
+		// the robot line of the decider can come after the decide line, so this is only known at the end
+		if (scenario.getHealth(scenario.decider) == 0)
+		{
+			String where = scenario.decideLine > 0 ? "Line " + scenario.decideLine + " of scenario " + defaultName : "Scenario " + defaultName;
+			throw new IllegalArgumentException(where + ": robot " + scenario.decider + " is dead, so it never decides anything");
+		}
+		return scenario;
+	}
+
+	/**
+	 * Helper method used to read one line of a scenario
+	 */
+	private void parseLine(String[] words, int lineNumber)
+	{
+		if (words[0].equals("name"))
+			name = words[1];
+		else if (words[0].equals("arena"))
+		{
+			if (Integer.parseInt(words[1]) != BattleManagerTest11.WIDTH || Integer.parseInt(words[2]) != BattleManagerTest11.HEIGHT)
+				throw new IllegalArgumentException("the engine's arena is " + BattleManagerTest11.WIDTH + " by " + BattleManagerTest11.HEIGHT);
+		}
+		else if (words[0].equals("robot"))
+		{
+			int id = player(words[1]);
+			int avenue = Integer.parseInt(words[3]);
+			int street = Integer.parseInt(words[4]);
+			int health = Integer.parseInt(words[5]);
+			int energy = Integer.parseInt(words[6]);
+			if (avenue < 0 || avenue >= BattleManagerTest11.WIDTH || street < 0 || street >= BattleManagerTest11.HEIGHT)
+				throw new IllegalArgumentException("robot " + id + " is outside of the arena");
+			if (health < 0 || energy < 0)
+				throw new IllegalArgumentException("robot " + id + " has negative health or energy");
+			if (health > BattleManagerTest11.MAX_HEALTH)
+				throw new IllegalArgumentException("robot " + id + " has more than the most health, " + BattleManagerTest11.MAX_HEALTH);
+			if (energy > BattleManagerTest11.MAX_ENERGY)
+				throw new IllegalArgumentException("robot " + id + " has more than the most energy, " + BattleManagerTest11.MAX_ENERGY);
+			roster[id] = RobotType.forName(words[2]);
+			spawn[id] = new int[] {avenue, street, health, energy};
+		}
+		else if (words[0].equals("fight"))
+		{
+			int id = player(words[1]);
+			int opp = player(words[2]);
+			fightsWon[id][opp] = Integer.parseInt(words[3]);
+			fightsLost[id][opp] = Integer.parseInt(words[4]);
+		}
+		else if (words[0].equals("decide"))
+		{
+			decider = player(words[1]);
+			decideLine = lineNumber;
+		}
+		else
+			throw new IllegalArgumentException("unknown line " + words[0]);
+	}
+
+	/**
+	 * Helper method used to read a player ID
+	 */
+	private static int player(String word)
+	{
+		int id = Integer.parseInt(word);
+		if (id < 0 || id >= BattleManagerTest11.NUM_PLAYERS)
+			throw new IllegalArgumentException("there is no player " + id);
+		return id;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * @return  the ID of the player whose first decision is benchmarked
+	 */
+	public int getDecider()
+	{
+		return decider;
+	}
+
+	/**
+	 * @return  the type of robot for each player ID
+	 */
+	public RobotType[] getRoster()
+	{
+		return roster.clone();
+	}
+
+	public int getAvenue(int id)
+	{
+		return spawn[id][0];
+	}
+
+	public int getStreet(int id)
+	{
+		return spawn[id][1];
+	}
+
+	public int getHealth(int id)
+	{
+		return spawn[id][2];
+	}
+
+	public int getEnergy(int id)
+	{
+		return spawn[id][3];
+	}
+
+	/**
+	 * @param id    a player ID
+	 * @param opp   another player ID
+	 * @return      the number of fights the player has won against the other one before the scenario starts
+	 */
+	public int getFightsWon(int id, int opp)
+	{
+		return fightsWon[id][opp];
+	}
+
+	/**
+	 * @param id    a player ID
+	 * @param opp   another player ID
+	 * @return      the number of fights the player has lost against the other one before the scenario starts
+	 */
+	public int getFightsLost(int id, int opp)
+	{
+		return fightsLost[id][opp];
+	}
+}
@@ -0,0 +1,119 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Measures how long robots take to make the first decision of hand written Scenarios, and which TurnRequest they
+ * choose.  Each measurement sets the scenario up again in a new battle (outside of the timing), so every decision is a
+ * real first decision.  The harness warms up first so the decision code is compiled before it is timed.
+ */
+public class ScenarioBenchmark {
+
+	private static final int WARM_UP_ITERATIONS = 5000;
+	private static final int ITERATIONS = 20000;
+
+	/**
+	 * Main method that benchmarks scenario files and prints a line for each one
+	 * @param args  the scenario files, or directories of them
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		City.showFrame(false);
+
+		System.out.format("%-20s%-24s%12s%12s%12s   %s%n", "Scenario", "Robot", "Mean (ns)", "p50 (ns)", "p99 (ns)", "Decision (avenue, street, fightID, rounds)");
+		for (String arg : args)
+		{
+			File file = new File(arg);
+			File[] files = file.isDirectory() ? file.listFiles() : new File[] {file};
+			Arrays.sort(files);
+			for (File scenarioFile : files)
+			{
+				Scenario scenario = Scenario.read(scenarioFile);
+				Result result = run(scenario, WARM_UP_ITERATIONS, ITERATIONS);
+				System.out.format("%-20s%-24s%12.0f%12d%12d   %s%n", scenario.getName(), scenario.getRoster()[scenario.getDecider()].getName(),
+						result.getMeanNanos(), result.getPercentileNanos(0.5), result.getPercentileNanos(0.99), result.getDecision());
+			}
+		}
+	}
+
+	/**
+	 * Benchmarks the first decision of a scenario on the current thread
+	 * @param scenario      the scenario
+	 * @param warmUp        the number of decisions made before timing starts
+	 * @param iterations    the number of decisions timed
+	 * @return              the timings and the decision
+	 */
+	public static Result run(Scenario scenario, int warmUp, int iterations)
+	{
+		RobotPool robots = RobotPool.forCurrentThread();
+		for (int i = 0; i < warmUp; i++)
+			new BattleManagerTest11(scenario, i, false, robots).decide(scenario.getDecider());
+
+		long[] nanos = new long[iterations];
+		String decision = null;
+		for (int i = 0; i < iterations; i++)
+		{
+			BattleManagerTest11 battle = new BattleManagerTest11(scenario, i, false, robots);
+			battle.setUp();
+			long start = System.nanoTime();
+			TurnRequest request = battle.decide(scenario.getDecider());
+			nanos[i] = System.nanoTime() - start;
+
+			String chosen = "(" + request.getEndAvenue() + ", " + request.getEndStreet() + ", " + request.getFightID() + ", " + request.getNumRounds() + ")";
+			if (decision == null)
+				decision = chosen;
+			else if (!decision.equals(chosen))
+				decision = "changes between runs";
+		}
+		Arrays.sort(nanos);
+		return new Result(nanos, decision);
+	}
+
+	/**
+	 * The timings of one scenario's decisions and the decision made
+	 */
+	public static class Result {
+
+		private final long[] sortedNanos;
+		private final String decision;
+
+		Result(long[] sortedNanos, String decision)
+		{
+			this.sortedNanos = sortedNanos;
+			this.decision = decision;
+		}
+
+		/**
+		 * @return  the mean time of a decision in nanoseconds
+		 */
+		public double getMeanNanos()
+		{
+			double sum = 0;
+			for (long n : sortedNanos)
+				sum += n;
+			return sum / sortedNanos.length;
+		}
+
+		/**
+		 * @param fraction  the fraction of decisions that were at least as fast, for example 0.99
+		 * @return          the time of that decision in nanoseconds
+		 */
+		public long getPercentileNanos(double fraction)
+		{
+			int index = (int) Math.ceil(fraction * sortedNanos.length) - 1;
+			return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, index))];
+		}
+
+		/**
+		 * @return  the TurnRequest chosen as (avenue, street, fightID, rounds), or a note that it was not always the same
+		 */
+		public String getDecision()
+		{
+			return decision;
+		}
+	}
+}
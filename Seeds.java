@@ -0,0 +1,45 @@
+package summative;
+
+/**
+ * Derives independent random seeds from a master seed, so every battle (and every round of dice inside a battle) gets
+ * its own stream of random numbers that only depends on where it is, not on which thread runs it or when.
+ */
+public class Seeds {
+
+	private Seeds()
+	{
+	}
+
+	/**
+	 * Scrambles a number with the SplitMix64 finalizer, so numbers that are close together give unrelated seeds
+	 * @param z     the number to scramble
+	 * @return      the scrambled number
+	 */
+	public static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @param seed  the master seed
+	 * @param key   what the new seed is for, for example a battle number
+	 * @return      a seed for that key
+	 */
+	public static long derive(long seed, long key)
+	{
+		return mix(seed + mix(key + 0x9e3779b97f4a7c15L));
+	}
+
+	/**
+	 * @param seed  the master seed
+	 * @param key1  the first part of what the new seed is for, for example a turn number
+	 * @param key2  the second part of what the new seed is for, for example a round number
+	 * @return      a seed for that pair of keys
+	 */
+	public static long derive(long seed, long key1, long key2)
+	{
+		return derive(derive(seed, key1), key2);
+	}
+}
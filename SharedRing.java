@@ -0,0 +1,159 @@
+package summative;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A ring of fixed size messages in a buffer shared by two processes (usually a memory mapped file), with one process
+ * writing and the other reading.  Each message is a type and a few ints.  Only the writer moves the head and only the
+ * reader moves the tail, so the two processes never need a lock: a message is written into its slot first and then
+ * published by moving the head with release ordering, and the reader sees the head with acquire ordering before it
+ * reads the slot.
+ *
+ * Waiting for a message (or for room to write one) spins for a short while first, since the answer is usually only
+ * microseconds away, and then parks for short moments so an idle process does not burn a processor.
+ */
+public class SharedRing {
+
+	public static final int HEADER_SIZE = 128;
+
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	private static final int HEAD = 0;     // number of messages written so far, on its own cache line
+	private static final int TAIL = 64;    // number of messages read so far, on its own cache line
+	private static final int SPIN_LIMIT = 20000;
+	private static final long PARK_NANOS = 20000;
+
+	private final ByteBuffer buffer;
+	private final int base;
+	private final int numSlots;
+	private final int slotInts;
+	private final int slotSize;
+	private long position;   // the head for the writer or the tail for the reader, only this side changes it
+
+	/**
+	 * @param numSlots  the number of messages the ring holds
+	 * @param slotInts  the most ints a message can carry
+	 * @return          the number of bytes the ring takes up in a buffer
+	 */
+	public static int sizeFor(int numSlots, int slotInts)
+	{
+		return HEADER_SIZE + numSlots * slotBytes(slotInts);
+	}
+
+	/**
+	 * Uses part of a buffer as a ring.  A new buffer (or file) is all zeros, which is an empty ring.
+	 * @param buffer    the shared buffer
+	 * @param base      where the ring starts in the buffer, a multiple of 64
+	 * @param numSlots  the number of messages the ring holds
+	 * @param slotInts  the most ints a message can carry
+	 */
+	public SharedRing(ByteBuffer buffer, int base, int numSlots, int slotInts)
+	{
+		if (base % 64 != 0)
+			throw new IllegalArgumentException("The ring must start on a multiple of 64 bytes");
+		this.buffer = buffer.duplicate().order(ByteOrder.nativeOrder());
+		this.base = base;
+		this.numSlots = numSlots;
+		this.slotInts = slotInts;
+		this.slotSize = slotBytes(slotInts);
+	}
+
+	/**
+	 * Makes this side of the ring the writer, carrying on from any messages already written
+	 */
+	public void openForWriting()
+	{
+		position = (long) LONGS.getAcquire(buffer, base + HEAD);
+	}
+
+	/**
+	 * Makes this side of the ring the reader, carrying on after any messages already read
+	 */
+	public void openForReading()
+	{
+		position = (long) LONGS.getAcquire(buffer, base + TAIL);
+	}
+
+	/**
+	 * Writes a message, waiting if the ring is full
+	 * @param type      what kind of message it is
+	 * @param values    the message's ints
+	 * @param count     the number of ints in values to send
+	 * @param timeout   the most nanoseconds to wait for room
+	 */
+	public void send(int type, int[] values, int count, long timeout) throws TimeoutException
+	{
+		if (count > slotInts)
+			throw new IllegalArgumentException("A message can carry at most " + slotInts + " ints");
+
+		long deadline = System.nanoTime() + timeout;
+		int spins = 0;
+		while (position - (long) LONGS.getAcquire(buffer, base + TAIL) >= numSlots)
+			spins = pause(spins, deadline);
+
+		int slot = base + HEADER_SIZE + (int) (position % numSlots) * slotSize;
+		buffer.putInt(slot, type);
+		buffer.putInt(slot + 4, count);
+		for (int i = 0; i < count; i++)
+			buffer.putInt(slot + 8 + 4 * i, values[i]);
+
+		position++;
+		LONGS.setRelease(buffer, base + HEAD, position);
+	}
+
+	/**
+	 * Reads the next message, waiting until there is one
+	 * @param values    array the message's ints are copied to, must hold slotInts ints
+	 * @param timeout   the most nanoseconds to wait
+	 * @return          what kind of message it is
+	 */
+	public int receive(int[] values, long timeout) throws TimeoutException
+	{
+		long deadline = System.nanoTime() + timeout;
+		int spins = 0;
+		while ((long) LONGS.getAcquire(buffer, base + HEAD) == position)
+			spins = pause(spins, deadline);
+
+		int slot = base + HEADER_SIZE + (int) (position % numSlots) * slotSize;
+		int type = buffer.getInt(slot);
+		int count = buffer.getInt(slot + 4);
+		// the other process wrote the count, so it is checked before it is used to read the slot
+		if (count < 0 || count > slotInts)
+			throw new IllegalStateException("Protocol error: a message of type " + type + " claims to carry " + count + " ints, a slot holds " + slotInts);
+		for (int i = 0; i < count; i++)
+			values[i] = buffer.getInt(slot + 8 + 4 * i);
+
+		position++;
+		LONGS.setRelease(buffer, base + TAIL, position);
+		return type;
+	}
+
+	/**
+	 * Helper method used to wait a little: spin first, then park for short moments until the deadline
+	 * @return  the number of times waited so far
+	 */
+	private static int pause(int spins, long deadline) throws TimeoutException
+	{
+		if (spins < SPIN_LIMIT)
+			Thread.onSpinWait();
+		else
+		{
+			if (System.nanoTime() > deadline)
+				throw new TimeoutException("The other process did not answer in time");
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+		return spins + 1;
+	}
+
+	/**
+	 * Helper method used to find the size of a slot: the type, the count and the ints, rounded up to 8 bytes
+	 */
+	private static int slotBytes(int slotInts)
+	{
+		return (8 + 4 * slotInts + 7) / 8 * 8;
+	}
+}
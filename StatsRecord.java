@@ -0,0 +1,109 @@
+package summative;
+
+/**
+ * Totals of the Player Statistics columns for one type of robot over any number of battles.  Records can be merged in
+ * any order and any grouping and still give the same totals, so every worker thread of a tournament keeps its own
+ * records and they are only combined at the end.
+ */
+public class StatsRecord {
+
+	// Columns of the record
+	public static final int BATTLES = 0;
+	public static final int BATTLES_WON = 1;
+	public static final int ROUNDS_WIN = 2;
+	public static final int ROUNDS_LOSS = 3;
+	public static final int FIGHTS_INITIATED_WIN = 4;
+	public static final int FIGHTS_INITIATED_LOSS = 5;
+	public static final int FIGHTS_INITIATED_TIE = 6;
+	public static final int FIGHTS_DEFEND_WIN = 7;
+	public static final int FIGHTS_DEFEND_LOSS = 8;
+	public static final int FIGHTS_DEFEND_TIE = 9;
+	public static final int TOTAL_NUM_MOVES = 10;
+	public static final int NUM_PENALTIES = 11;
+	public static final int NUM_KILLS = 12;
+	public static final int DECISIONS = 13;         // takeTurn() calls that were measured, see ResourceBudget
+	public static final int CPU_NANOS = 14;
+	public static final int ALLOCATED_BYTES = 15;
+	public static final int NUM_COLUMNS = 16;
+
+	private static final PenaltyReason[] REASONS = PenaltyReason.values();
+
+	private final long[] counts = new long[NUM_COLUMNS];
+	private final long[] penaltyCounts = new long[REASONS.length];   // number of penalties for each reason
+
+	/**
+	 * Adds the results of one player in one battle
+	 * @param stats     the player's statistics at the end of the battle
+	 * @param won       whether the player was the last one left
+	 */
+	public void add(PlayerStats stats, boolean won)
+	{
+		counts[BATTLES]++;
+		if (won)
+			counts[BATTLES_WON]++;
+		counts[ROUNDS_WIN] += stats.getRoundsWin();
+		counts[ROUNDS_LOSS] += stats.getRoundsLoss();
+		counts[FIGHTS_INITIATED_WIN] += stats.getFightsInitiatedWin();
+		counts[FIGHTS_INITIATED_LOSS] += stats.getFightsInitiatedLoss();
+		counts[FIGHTS_INITIATED_TIE] += stats.getFightsInitiatedTie();
+		counts[FIGHTS_DEFEND_WIN] += stats.getFightsDefendWin();
+		counts[FIGHTS_DEFEND_LOSS] += stats.getFightsDefendLoss();
+		counts[FIGHTS_DEFEND_TIE] += stats.getFightsDefendTie();
+		counts[TOTAL_NUM_MOVES] += stats.getTotalNumMoves();
+		counts[NUM_PENALTIES] += stats.getNumPenalties();
+		counts[NUM_KILLS] += stats.getNumKills();
+	}
+
+	/**
+	 * Adds the cost of the measured decisions of one player in one battle
+	 * @param battle    the battle
+	 * @param id        the player's ID in the battle
+	 */
+	public void addResources(BattleManagerTest11 battle, int id)
+	{
+		counts[DECISIONS] += battle.getNumDecisions(id);
+		counts[CPU_NANOS] += battle.getCpuNanos(id);
+		counts[ALLOCATED_BYTES] += battle.getAllocatedBytes(id);
+	}
+
+	/**
+	 * Adds the penalty reasons of one player in one battle
+	 * @param penalties     the penalties given in the battle
+	 * @param id            the player's ID in the battle
+	 */
+	public void addPenalties(PenaltyLog penalties, int id)
+	{
+		for (PenaltyReason reason : REASONS)
+			penaltyCounts[reason.ordinal()] += penalties.getCount(id, reason);
+	}
+
+	/**
+	 * Adds the totals of another record to this one
+	 * @param other     the record to add
+	 */
+	public void merge(StatsRecord other)
+	{
+		for (int i = 0; i < NUM_COLUMNS; i++)
+			counts[i] += other.counts[i];
+		for (int i = 0; i < REASONS.length; i++)
+			penaltyCounts[i] += other.penaltyCounts[i];
+	}
+
+	/**
+	 * @param column    one of the column constants
+	 * @return          the total for that column
+	 */
+	public long get(int column)
+	{
+		return counts[column];
+	}
+
+	/**
+	 * @param reason    a reason for a penalty
+	 * @return          the total number of penalties given for that reason
+	 */
+	public long getPenalties(PenaltyReason reason)
+	{
+		return penaltyCounts[reason.ordinal()];
+	}
+}
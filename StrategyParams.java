@@ -0,0 +1,89 @@
+package summative;
+
+/**
+ * The tuning constants of RahmanFighterRobotV4's AI. Objects of this class never change, so one can be shared by any
+ * number of robots.
+ */
+public class StrategyParams {
+    // the values the robot was tuned with by hand
+    public static final StrategyParams DEFAULT = new StrategyParams(15, 5, 0.3, 0.1, 0.6);
+
+    // number of values in the parameter vector, see toArray()
+    public static final int SIZE = 5;
+
+    private final int maxAtkHpDiff;
+    private final int strongerBonus;
+    private final double distanceWeight;
+    private final double healthWeight;
+    private final double lossRateWeight;
+
+    /**
+     * @param maxAtkHpDiff -- how far below the opponents' average HP the robot's HP can be before it retreats
+     * @param strongerBonus -- Fight Value bonus for each fight more the robot has won than lost against an opponent
+     * @param distanceWeight -- weight of the distance to an opponent in its Fight Value
+     * @param healthWeight -- weight of an opponent's health in its Fight Value
+     * @param lossRateWeight -- weight of the robot's loss rate against an opponent in its Fight Value
+     */
+    public StrategyParams(int maxAtkHpDiff, int strongerBonus, double distanceWeight, double healthWeight, double lossRateWeight) {
+        this.maxAtkHpDiff = maxAtkHpDiff;
+        this.strongerBonus = strongerBonus;
+        this.distanceWeight = distanceWeight;
+        this.healthWeight = healthWeight;
+        this.lossRateWeight = lossRateWeight;
+    }
+
+    /**
+     * Creates parameters from a vector, rounding the whole number constants and keeping 3 decimal places of the weights
+     * so that points close enough to play the same are seen as the same point
+     * @param vector -- the values in the same order as toArray()
+     * @return -- the parameters
+     */
+    public static StrategyParams fromArray(double[] vector) {
+        return new StrategyParams((int) Math.round(vector[0]), (int) Math.round(vector[1]),
+                Math.round(vector[2] * 1000) / 1000.0, Math.round(vector[3] * 1000) / 1000.0, Math.round(vector[4] * 1000) / 1000.0);
+    }
+
+    /**
+     * @return -- the parameters as a vector: maxAtkHpDiff, strongerBonus, distanceWeight, healthWeight, lossRateWeight
+     */
+    public double[] toArray() {
+        return new double[] {maxAtkHpDiff, strongerBonus, distanceWeight, healthWeight, lossRateWeight};
+    }
+
+    public int getMaxAtkHpDiff() {
+        return maxAtkHpDiff;
+    }
+
+    public int getStrongerBonus() {
+        return strongerBonus;
+    }
+
+    public double getDistanceWeight() {
+        return distanceWeight;
+    }
+
+    public double getHealthWeight() {
+        return healthWeight;
+    }
+
+    public double getLossRateWeight() {
+        return lossRateWeight;
+    }
+
+    public boolean equals(Object other) {
+        if (!(other instanceof StrategyParams)) {
+            return false;
+        }
+        StrategyParams p = (StrategyParams) other;
+        return maxAtkHpDiff == p.maxAtkHpDiff && strongerBonus == p.strongerBonus && distanceWeight == p.distanceWeight
+                && healthWeight == p.healthWeight && lossRateWeight == p.lossRateWeight;
+    }
+
+    public int hashCode() {
+        return java.util.Arrays.hashCode(toArray());
+    }
+
+    public String toString() {
+        return "(" + maxAtkHpDiff + ", " + strongerBonus + ", " + distanceWeight + ", " + healthWeight + ", " + lossRateWeight + ")";
+    }
+}
@@ -0,0 +1,388 @@
+package summative;
+
+import becker.robots.City;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many battles without printing them, spread over a number of worker threads, and adds up the Player Statistics
+ * of every battle.  Only the battles are quiet: a robot whose RobotProfile has debug on still prints every turn.
+ */
+public class Tournament {
+
+	private static final int BLOCK_SIZE = 64;   // battles recorded together by one worker in run(), see run()
+
+	private final int numThreads;
+	private final ExecutorService pool;
+	private volatile ResourceBudget budget = null;   // given to the battles of run(), null to not measure decisions
+	private volatile int visibilityRadius = BattleManagerTest11.FULL_VISIBILITY;   // given to the battles of run()
+
+	/**
+	 * Main method that runs a tournament of the default roster and prints the totals
+	 * @param args  optional number of battles (default 1000), number of worker threads (default one per processor),
+	 *              a CPU budget per turn in microseconds and a memory budget per turn in bytes to measure every decision
+	 *              ("- -" to not measure), a seed to make the tournament repeatable and how many moves away players can
+	 *              see their opponents (default the whole arena); or "verify", then optionally the number of battles
+	 *              (default 200), two numbers of worker threads (default 1 and one per processor) and the seed (default
+	 *              1) to check that the results do not depend on the number of threads
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		if (args.length > 0 && args[0].equals("verify"))
+		{
+			int numBattles = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+			int threadsA = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+			int threadsB = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+			long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+			City.showFrame(false);
+			if (!verifyDeterminism(BattleManagerTest11.DEFAULT_ROSTER, numBattles, seed, threadsA, threadsB, System.out))
+				System.exit(1);
+			return;
+		}
+
+		int numBattles = 1000;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 0)
+			numBattles = Integer.parseInt(args[0]);
+		if (args.length > 1)
+			numThreads = Integer.parseInt(args[1]);
+		ResourceBudget budget = null;
+		if (args.length > 3 && !args[2].equals("-"))
+			budget = new ResourceBudget(Long.parseLong(args[2]) * 1000, Long.parseLong(args[3]));
+		long seed = new Random().nextLong();
+		if (args.length > 4)
+			seed = Long.parseLong(args[4]);
+		int visibilityRadius = BattleManagerTest11.FULL_VISIBILITY;
+		if (args.length > 5)
+			visibilityRadius = Integer.parseInt(args[5]);
+
+		// thousands of battles can not be watched, so do not open a window for every arena
+		City.showFrame(false);
+
+		Tournament tournament = new Tournament(numThreads);
+		tournament.setResourceBudget(budget);
+		tournament.setVisibilityRadius(visibilityRadius);
+		try
+		{
+			TournamentStats totals = tournament.run(BattleManagerTest11.DEFAULT_ROSTER, numBattles, seed);
+			printSummary(totals, System.out);
+		}
+		finally
+		{
+			tournament.shutdown();
+		}
+	}
+
+	/**
+	 * @param numThreads    the number of battles to run at the same time
+	 */
+	public Tournament(int numThreads)
+	{
+		this.numThreads = numThreads;
+		this.pool = Executors.newFixedThreadPool(numThreads);
+	}
+
+	/**
+	 * Sets the budget the battles of run() measure every decision against
+	 * @param newBudget     the budget, ResourceBudget.UNLIMITED to only measure, or null to not measure
+	 */
+	public void setResourceBudget(ResourceBudget newBudget)
+	{
+		budget = newBudget;
+	}
+
+	/**
+	 * Sets how far the players of the battles of run() can see, see BattleManagerTest11.setVisibilityRadius()
+	 * @param radius    the most moves away an opponent can be seen from, or BattleManagerTest11.FULL_VISIBILITY
+	 */
+	public void setVisibilityRadius(int radius)
+	{
+		visibilityRadius = radius;
+	}
+
+	/**
+	 * Runs a number of battles between the same roster of robots (spawned in different places each battle)
+	 * @param roster        the type of robot for each player ID
+	 * @param numBattles    the number of battles to run
+	 * @return              the totals of every battle
+	 */
+	public TournamentStats run(RobotType[] roster, int numBattles) throws InterruptedException
+	{
+		return run(roster, numBattles, new Random().nextLong());
+	}
+
+	/**
+	 * Runs a number of battles between the same roster of robots.  Battle i is played with the seed
+	 * Seeds.derive(seed, i) whichever worker runs it.  The battles are handed out in blocks of BLOCK_SIZE, each block is
+	 * recorded in battle order and the blocks are merged in block order, so the same seed gives the same totals and
+	 * the same QuantileSketch estimates with any number of worker threads.
+	 * @param roster        the type of robot for each player ID
+	 * @param numBattles    the number of battles to run
+	 * @param seed          the seed every battle's seed is derived from
+	 * @return              the totals of every battle
+	 */
+	public TournamentStats run(final RobotType[] roster, final int numBattles, final long seed) throws InterruptedException
+	{
+		final int numBlocks = (numBattles + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		final AtomicInteger nextBlock = new AtomicInteger();
+		final TournamentStats totals = new TournamentStats();
+		final TournamentStats[] finished = new TournamentStats[numBlocks];   // blocks waiting for the ones before them
+		final AtomicInteger numMerged = new AtomicInteger();                  // blocks already merged into totals, only changed while holding finished
+		List<Future<Object>> workers = new ArrayList<Future<Object>>();
+		for (int w = 0; w < numThreads; w++)
+		{
+			workers.add(pool.submit(new Callable<Object>() {
+				public Object call()
+				{
+					// each worker keeps its own robots and fills in a block on its own, so it only waits to hand it in
+					RobotPool robots = RobotPool.forCurrentThread();
+					int block = nextBlock.getAndIncrement();
+					while (block < numBlocks)
+					{
+						TournamentStats blockTotals = new TournamentStats();
+						int end = Math.min(numBattles, (block + 1) * BLOCK_SIZE);
+						for (int index = block * BLOCK_SIZE; index < end; index++)
+						{
+							BattleManagerTest11 battle = new BattleManagerTest11(roster, Seeds.derive(seed, index), false, robots);
+							battle.setResourceBudget(budget);
+							battle.setVisibilityRadius(visibilityRadius);
+							battle.runBattle();
+							blockTotals.record(battle);
+						}
+
+						// merge every block that is next in line, later blocks wait in finished until then
+						synchronized (finished)
+						{
+							finished[block] = blockTotals;
+							int next = numMerged.get();
+							while (next < numBlocks && finished[next] != null)
+							{
+								totals.merge(finished[next]);
+								finished[next] = null;
+								next++;
+							}
+							numMerged.set(next);
+						}
+						block = nextBlock.getAndIncrement();
+					}
+					return null;
+				}
+			}));
+		}
+
+		for (Future<Object> worker : workers)
+			getResult(worker);
+		return totals;
+	}
+
+	/**
+	 * Runs a batch of battles spread over the worker threads
+	 * @param numBattles    the number of battles in the batch
+	 * @param task          runs one battle of the batch
+	 * @return              the result of each battle, in the same order as the battle indexes
+	 */
+	public <T> List<T> runBatch(final int numBattles, final BattleTask<T> task) throws InterruptedException
+	{
+		final AtomicInteger nextBattle = new AtomicInteger();
+		final Object[] results = new Object[numBattles];
+		List<Future<Object>> workers = new ArrayList<Future<Object>>();
+		for (int w = 0; w < numThreads; w++)
+		{
+			workers.add(pool.submit(new Callable<Object>() {
+				public Object call()
+				{
+					int index = nextBattle.getAndIncrement();
+					while (index < numBattles)
+					{
+						// every battle has its own slot, so the workers never write to the same place
+						results[index] = task.run(index);
+						index = nextBattle.getAndIncrement();
+					}
+					return null;
+				}
+			}));
+		}
+
+		for (Future<Object> worker : workers)
+			getResult(worker);
+
+		List<T> list = new ArrayList<T>(numBattles);
+		for (int i = 0; i < numBattles; i++)
+		{
+			@SuppressWarnings("unchecked")
+			T result = (T) results[i];
+			list.add(result);
+		}
+		return list;
+	}
+
+	/**
+	 * Checks that a tournament gives the same results with two different numbers of worker threads: the summary main()
+	 * prints (the totals and the distributions) must be byte for byte the same, and so must the BattleTrace of every
+	 * battle
+	 * @param roster        the type of robot for each player ID
+	 * @param numBattles    the number of battles to play with each number of threads
+	 * @param seed          the seed of the tournament
+	 * @param threadsA      the first number of worker threads
+	 * @param threadsB      the second number of worker threads
+	 * @param out           where to report the result
+	 * @return              whether the two runs matched
+	 */
+	public static boolean verifyDeterminism(final RobotType[] roster, int numBattles, final long seed, int threadsA, int threadsB, PrintStream out) throws InterruptedException
+	{
+		int[] threads = {threadsA, threadsB};
+		byte[][] reports = new byte[threads.length][];
+		List<List<Integer>> traceHashes = new ArrayList<List<Integer>>();
+		for (int t = 0; t < threads.length; t++)
+		{
+			Tournament tournament = new Tournament(threads[t]);
+			try
+			{
+				ByteArrayOutputStream report = new ByteArrayOutputStream();
+				printSummary(tournament.run(roster, numBattles, seed), new PrintStream(report, true));
+				reports[t] = report.toByteArray();
+
+				traceHashes.add(tournament.runBatch(numBattles, new BattleTask<Integer>() {
+					public Integer run(int index)
+					{
+						return Arrays.hashCode(GoldenReplay.play(roster, Seeds.derive(seed, index)));
+					}
+				}));
+			}
+			finally
+			{
+				tournament.shutdown();
+			}
+		}
+
+		boolean matched = true;
+		for (int i = 0; i < numBattles; i++)
+		{
+			if (!traceHashes.get(0).get(i).equals(traceHashes.get(1).get(i)))
+			{
+				out.println("Battle " + i + " (seed " + Seeds.derive(seed, i) + ") played differently with " + threadsA + " and " + threadsB + " threads");
+				matched = false;
+				break;
+			}
+		}
+		if (!Arrays.equals(reports[0], reports[1]))
+		{
+			String[] linesA = new String(reports[0]).split("\n");
+			String[] linesB = new String(reports[1]).split("\n");
+			int line = 0;
+			while (line < linesA.length && line < linesB.length && linesA[line].equals(linesB[line]))
+				line++;
+			out.println("Summaries differ at line " + (line + 1) + " with " + threadsA + " and " + threadsB + " threads");
+			matched = false;
+		}
+		if (matched)
+			out.println(numBattles + " battles gave identical results with " + threadsA + " and " + threadsB + " threads");
+		return matched;
+	}
+
+	/**
+	 * Helper method used to print everything a tournament found out
+	 */
+	private static void printSummary(TournamentStats totals, PrintStream out)
+	{
+		totals.print(out);
+		out.println();
+		totals.printDistributions(out);
+	}
+
+	/**
+	 * Closes and drops the robots every worker thread keeps in its RobotPool.  Call this before shutdown() when the
+	 * battles used robots that hold on to something outside of the JVM, such as a RemoteFighterRobot's process.
+	 */
+	public void clearRobotPools() throws InterruptedException
+	{
+		onEveryWorker(new Runnable() {
+			public void run()
+			{
+				RobotPool.forCurrentThread().clear();
+			}
+		});
+	}
+
+	/**
+	 * Closes and drops the robots of some types from the RobotPool of every worker thread, so the pools no longer keep
+	 * the types (or their classes) alive
+	 * @param types     the types of robot
+	 */
+	public void removeFromRobotPools(final List<RobotType> types) throws InterruptedException
+	{
+		onEveryWorker(new Runnable() {
+			public void run()
+			{
+				for (RobotType type : types)
+					RobotPool.forCurrentThread().remove(type);
+			}
+		});
+	}
+
+	/**
+	 * Helper method used to run a task once on each worker thread, once the battles already started are done
+	 */
+	private void onEveryWorker(final Runnable task) throws InterruptedException
+	{
+		// no worker can pick up a second task while every one of them is waiting at the barrier
+		final CyclicBarrier everyWorker = new CyclicBarrier(numThreads);
+		List<Future<Object>> workers = new ArrayList<Future<Object>>();
+		for (int w = 0; w < numThreads; w++)
+		{
+			workers.add(pool.submit(new Callable<Object>() {
+				public Object call() throws Exception
+				{
+					task.run();
+					everyWorker.await();
+					return null;
+				}
+			}));
+		}
+		for (Future<Object> worker : workers)
+			getResult(worker);
+	}
+
+	/**
+	 * @return  the number of battles run at the same time
+	 */
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	/**
+	 * Stops the worker threads once the battles already started are done
+	 */
+	public void shutdown()
+	{
+		pool.shutdown();
+	}
+
+	/**
+	 * Helper method used to wait for a worker, passing on anything thrown by a battle
+	 */
+	private static <T> T getResult(Future<T> worker) throws InterruptedException
+	{
+		try
+		{
+			return worker.get();
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("A battle failed", e.getCause());
+		}
+	}
+}
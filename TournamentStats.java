@@ -0,0 +1,179 @@
+package summative;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Player Statistics for a whole tournament, with one StatsRecord for each type of robot, and sketches of how long
+ * battles last and how robots do in them.  Not thread safe: each worker fills in its own TournamentStats and they are
+ * merged once the workers are done.
+ */
+public class TournamentStats {
+
+	private static final double[] PERCENTILES = {0.10, 0.50, 0.90, 0.99};
+
+	private final Map<String, StatsRecord> records = new TreeMap<String, StatsRecord>();   // sorted so the report is always in the same order
+	private final QuantileSketch battleTurns = new QuantileSketch();      // turns until each battle ended
+	private final QuantileSketch turnsSurvived = new QuantileSketch();    // turns each robot lasted
+	private final QuantileSketch healthLeft = new QuantileSketch();       // health of each robot still in play at the end
+	private final QuantileSketch battleFights = new QuantileSketch();     // fights in each battle
+
+	/**
+	 * Adds the results of every player in a finished battle
+	 * @param battle    the battle
+	 */
+	public void record(BattleManagerTest11 battle)
+	{
+		int winnerID = battle.getWinnerID();
+		int numFights = 0;
+		for (int id = 0; id < BattleManagerTest11.NUM_PLAYERS; id++)
+		{
+			StatsRecord record = getRecord(battle.getRobotType(id).getName());
+			record.add(battle.getStats(id), id == winnerID);
+			record.addPenalties(battle.getPenalties(), id);
+			record.addResources(battle, id);
+
+			PlayerStats stats = battle.getStats(id);
+			numFights += stats.getFightsInitiatedWin() + stats.getFightsInitiatedLoss() + stats.getFightsInitiatedTie();
+			turnsSurvived.add(battle.getTurnsSurvived(id));
+			if (battle.getHealth(id) > 0)
+				healthLeft.add(battle.getHealth(id));
+		}
+		battleTurns.add(battle.getTurnCount());
+		battleFights.add(numFights);
+	}
+
+	/**
+	 * Adds all of the totals of another TournamentStats to this one
+	 * @param other     the statistics to add
+	 */
+	public void merge(TournamentStats other)
+	{
+		for (Map.Entry<String, StatsRecord> entry : other.records.entrySet())
+			getRecord(entry.getKey()).merge(entry.getValue());
+		battleTurns.merge(other.battleTurns);
+		turnsSurvived.merge(other.turnsSurvived);
+		healthLeft.merge(other.healthLeft);
+		battleFights.merge(other.battleFights);
+	}
+
+	/**
+	 * @param name  the name of a type of robot
+	 * @return      the totals for that type of robot, created empty if it has not played yet
+	 */
+	public StatsRecord getRecord(String name)
+	{
+		StatsRecord record = records.get(name);
+		if (record == null)
+		{
+			record = new StatsRecord();
+			records.put(name, record);
+		}
+		return record;
+	}
+
+	/**
+	 * Prints the Player Statistics table with one line for each type of robot
+	 * @param out   where to print the table
+	 */
+	public void print(PrintStream out)
+	{
+		out.println("Player Statistics");
+		out.format("%-22s%-10s%-10s%-15s%-15s%-20s%-20s%-20s%-25s%-20s", "Robot", "Battles", "Won", "Rounds Won", "Rounds Loss", "Fights Initiated", "Fights Defended", "Number of Moves", "Number of Penalities", "Number of Kills");
+		out.println();
+		out.format("%86s%2s%-6s%-8s%-6s%-6s%-6s", "Wins", "", "Loss", "Ties", "Wins", "Loss", "Ties");
+		out.println();
+		for (Map.Entry<String, StatsRecord> entry : records.entrySet())
+		{
+			StatsRecord record = entry.getValue();
+			out.format("%-22s", entry.getKey());
+			out.format("%7d", record.get(StatsRecord.BATTLES));
+			out.format("%10d", record.get(StatsRecord.BATTLES_WON));
+			out.format("%14d", record.get(StatsRecord.ROUNDS_WIN));
+			out.format("%15d", record.get(StatsRecord.ROUNDS_LOSS));
+			out.format("%13d", record.get(StatsRecord.FIGHTS_INITIATED_WIN));
+			out.format("%6d", record.get(StatsRecord.FIGHTS_INITIATED_LOSS));
+			out.format("%6d", record.get(StatsRecord.FIGHTS_INITIATED_TIE));
+			out.format("%7d", record.get(StatsRecord.FIGHTS_DEFEND_WIN));
+			out.format("%6d", record.get(StatsRecord.FIGHTS_DEFEND_LOSS));
+			out.format("%6d", record.get(StatsRecord.FIGHTS_DEFEND_TIE));
+			out.format("%17d", record.get(StatsRecord.TOTAL_NUM_MOVES));
+			out.format("%20d", record.get(StatsRecord.NUM_PENALTIES));
+			out.format("%20d", record.get(StatsRecord.NUM_KILLS));
+			out.println();
+		}
+
+		// only battles with a ResourceBudget measure their decisions
+		boolean measured = false;
+		for (StatsRecord record : records.values())
+		{
+			if (record.get(StatsRecord.DECISIONS) > 0)
+				measured = true;
+		}
+		if (measured)
+		{
+			out.println();
+			out.println("Cost of each decision");
+			out.format("%-22s%-12s%-20s%-20s%-18s", "Robot", "Decisions", "CPU time (ms)", "Mean CPU (us)", "Mean allocated (B)");
+			out.println();
+			for (Map.Entry<String, StatsRecord> entry : records.entrySet())
+			{
+				StatsRecord record = entry.getValue();
+				long decisions = Math.max(1, record.get(StatsRecord.DECISIONS));
+				out.format("%-22s", entry.getKey());
+				out.format("%-12d", record.get(StatsRecord.DECISIONS));
+				out.format("%-20.1f", record.get(StatsRecord.CPU_NANOS) / 1e6);
+				out.format("%-20.2f", record.get(StatsRecord.CPU_NANOS) / 1e3 / decisions);
+				out.format("%-18d", record.get(StatsRecord.ALLOCATED_BYTES) / decisions);
+				out.println();
+			}
+		}
+
+		out.println();
+		out.println("Penalties given to the following robots:");
+		for (Map.Entry<String, StatsRecord> entry : records.entrySet())
+		{
+			out.println(entry.getKey());
+			for (PenaltyReason reason : PenaltyReason.values())
+			{
+				long count = entry.getValue().getPenalties(reason);
+				if (count > 0)
+					out.println("\t" + count + " x " + reason.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Prints the estimated percentiles of battle length, survival time, health left and fights.  The estimates depend
+	 * on the order values are added and sketches merged in, which Tournament.run() keeps the same for any number of
+	 * threads.
+	 * @param out   where to print the table
+	 */
+	public void printDistributions(PrintStream out)
+	{
+		out.println("Distributions (estimated)");
+		out.format("%-26s%-12s%-8s%-8s%-8s%-8s", "Metric", "Count", "p10", "p50", "p90", "p99");
+		out.println();
+		printDistribution(out, "Turns per battle", battleTurns);
+		printDistribution(out, "Turns survived", turnsSurvived);
+		printDistribution(out, "Health left at the end", healthLeft);
+		printDistribution(out, "Fights per battle", battleFights);
+	}
+
+	/**
+	 * Helper method used to print one line of the distributions table
+	 */
+	private void printDistribution(PrintStream out, String name, QuantileSketch sketch)
+	{
+		out.format("%-26s%-12d", name, sketch.getCount());
+		for (double percentile : PERCENTILES)
+		{
+			if (sketch.getCount() == 0)
+				out.format("%-8s", "-");
+			else
+				out.format("%-8.0f", sketch.quantile(percentile));
+		}
+		out.println();
+	}
+}
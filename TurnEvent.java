@@ -0,0 +1,29 @@
+package summative;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one FighterRobot's whole turn: its decision and everything the battle manager does
+ * with the TurnRequest.
+ */
+@Name("summative.Turn")
+@Label("Turn")
+@Category("FighterRobot")
+@Description("One FighterRobot taking its turn")
+class TurnEvent extends jdk.jfr.Event {
+
+	@Label("Turn")
+	int turn;
+
+	@Label("Robot ID")
+	int robotID;
+
+	@Label("Energy")
+	int energy;
+
+	@Label("Health")
+	int health;
+}
@@ -0,0 +1,54 @@
+package summative;
+
+/**
+ * Helper methods for win rates measured over a number of battles
+ */
+public class WinRate {
+
+	// z value for a 95% confidence interval
+	public static final double Z_95 = 1.959964;
+
+	private WinRate()
+	{
+	}
+
+	/**
+	 * Lower bound of the Wilson score interval of a win rate
+	 * @param wins      number of battles won
+	 * @param games     number of battles played
+	 * @param z         z value of the confidence level, for example Z_95
+	 * @return          the lower bound, 0 if no battles were played
+	 */
+	public static double wilsonLower(long wins, long games, double z)
+	{
+		if (games == 0)
+			return 0;
+		return wilsonCentre(wins, games, z) - wilsonHalfWidth(wins, games, z);
+	}
+
+	/**
+	 * Upper bound of the Wilson score interval of a win rate
+	 * @param wins      number of battles won
+	 * @param games     number of battles played
+	 * @param z         z value of the confidence level, for example Z_95
+	 * @return          the upper bound, 1 if no battles were played
+	 */
+	public static double wilsonUpper(long wins, long games, double z)
+	{
+		if (games == 0)
+			return 1;
+		return wilsonCentre(wins, games, z) + wilsonHalfWidth(wins, games, z);
+	}
+
+	private static double wilsonCentre(long wins, long games, double z)
+	{
+		double p = (double) wins / games;
+		return (p + z * z / (2.0 * games)) / (1 + z * z / games);
+	}
+
+	private static double wilsonHalfWidth(long wins, long games, double z)
+	{
+		double p = (double) wins / games;
+		return z / (1 + z * z / games) * Math.sqrt(p * (1 - p) / games + z * z / (4.0 * games * games));
+	}
+}